@@ -0,0 +1,133 @@
+package com.google.chat.bot.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import com.google.chat.bot.action.CardActionRouter;
+import com.google.chat.bot.action.OnCardAction;
+import com.google.chat.bot.card.CardActions;
+import com.google.chat.bot.event.ChatEventClassifier;
+import com.google.chat.bot.event.ChatEventView;
+import com.google.chat.bot.event.model.ChatEvent;
+import com.google.chat.v1.Message;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.support.GenericApplicationContext;
+
+/**
+ * Card click dispatch through {@link CardActionRouter}, from the corpus button click with its
+ * action parameters replaced. The handlers return a completed future, so only the lookup and the
+ * handler invocation are measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CardActionRouterBenchmark {
+
+  private static final ApiFuture<Message> SENT =
+      ApiFutures.immediateFuture(Message.getDefaultInstance());
+
+  /** {@code type:} and {@code key:} select the parameter; {@code none} matches no handler. */
+  @Param({
+    "type:" + CardActions.TYPE_UPDATE_MESSAGE,
+    "key:" + CardActions.KEY_STATIC_SUGGESTIONS_SUBMIT,
+    "key:" + CardActions.KEY_GENERIC_CLICK,
+    "none"
+  })
+  public String action;
+
+  private GenericApplicationContext context;
+  private CardActionRouter router;
+  private ChatEventView click;
+
+  @Setup(Level.Trial)
+  public void setUp() throws IOException {
+    context = new GenericApplicationContext();
+    context.registerBean(Handlers.class);
+    context.registerBean(
+        CardActionRouter.class, () -> new CardActionRouter(context, new SimpleMeterRegistry()));
+    context.refresh();
+    router = context.getBean(CardActionRouter.class);
+
+    ChatEventView corpusClick =
+        ChatEventClassifier.classify(
+            new ObjectMapper().readValue(EventCorpus.BUTTON_CLICK.event(), ChatEvent.class));
+    Map<String, String> parameters = new HashMap<>();
+    if (action.startsWith("type:")) {
+      parameters.put(CardActions.PARAM_ACTION_TYPE, action.substring("type:".length()));
+    } else if (action.startsWith("key:")) {
+      parameters.put(CardActions.PARAM_ACTION_KEY, action.substring("key:".length()));
+    }
+    click =
+        new ChatEventView(
+            corpusClick.kind(),
+            corpusClick.spaceName(),
+            corpusClick.threadName(),
+            corpusClick.messageName(),
+            corpusClick.senderType(),
+            corpusClick.senderDisplayName(),
+            corpusClick.text(),
+            corpusClick.commandId(),
+            corpusClick.actionMethodName(),
+            Map.copyOf(parameters),
+            corpusClick.formValues());
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public ApiFuture<Message> route() {
+    return router.route(click);
+  }
+
+  /** Stand-ins for the built-in handlers, one per route. */
+  public static class Handlers {
+
+    @OnCardAction(type = CardActions.TYPE_UPDATE_MESSAGE)
+    public ApiFuture<Message> updateMessage(ChatEventView view) {
+      return SENT;
+    }
+
+    @OnCardAction(key = CardActions.KEY_STATIC_SUGGESTIONS_SUBMIT)
+    public ApiFuture<Message> staticSuggestions(ChatEventView view) {
+      return SENT;
+    }
+
+    @OnCardAction(key = CardActions.KEY_PLATFORM_SUGGESTIONS_SUBMIT)
+    public ApiFuture<Message> platformSuggestions(ChatEventView view) {
+      return SENT;
+    }
+
+    @OnCardAction(key = CardActions.KEY_ACCESSORY_WIDGET_CLICK)
+    public ApiFuture<Message> accessoryWidget(ChatEventView view) {
+      return SENT;
+    }
+
+    @OnCardAction(key = CardActions.KEY_GENERIC_CLICK)
+    public ApiFuture<Message> genericClick(ChatEventView view) {
+      return SENT;
+    }
+  }
+}
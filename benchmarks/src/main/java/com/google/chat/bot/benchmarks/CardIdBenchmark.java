@@ -0,0 +1,51 @@
+package com.google.chat.bot.benchmarks;
+
+import com.google.chat.bot.card.CardIdGenerator;
+import com.google.chat.bot.card.CardIdGenerators;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Card ID generation as the bot did it, {@code "interactive-card-" + UUID.randomUUID()}, against
+ * the {@link CardIdGenerator} strategies. Runs on four threads to show contention on the shared
+ * {@code SecureRandom} and on the counter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class CardIdBenchmark {
+
+  private static final String PREFIX = "interactive-card-";
+
+  private final CardIdGenerator counter = CardIdGenerators.counter();
+  private final CardIdGenerator random = CardIdGenerators.random();
+
+  @Benchmark
+  public String uuidConcat() {
+    return PREFIX + UUID.randomUUID().toString();
+  }
+
+  @Benchmark
+  public String counter() {
+    return counter.next(PREFIX);
+  }
+
+  @Benchmark
+  public String random() {
+    return random.next(PREFIX);
+  }
+}
@@ -0,0 +1,61 @@
+package com.google.chat.bot.benchmarks;
+
+import com.google.chat.bot.card.CardTemplate;
+import com.google.chat.v1.Message;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of producing one outgoing card message: rebuilding the card per message against stamping
+ * the card ID and thread onto a {@link CardTemplate}. Run with {@code -prof gc} and compare {@code
+ * gc.alloc.rate.norm}, the bytes allocated per message.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CardTemplateBenchmark {
+
+  @Param({
+    "INTERACTIVE",
+    "UPDATE_MESSAGE",
+    "STATIC_SUGGESTIONS",
+    "PLATFORM_SUGGESTIONS",
+    "ACCESSORY_WIDGET"
+  })
+  public CardTemplate template;
+
+  // The card ID is fixed so that only the card construction is measured.
+  private final String cardId = "interactive-card-7f1c2a9e-5b3d-4c8e-9a6f-0d2b4e6a8c1f";
+  private final String threadName = "spaces/AAAAbbbbCCC/threads/DDDDeeeeFFF";
+
+  @Setup
+  public void checkEquivalent() {
+    if (!LegacyCards.build(template, cardId, threadName)
+        .equals(template.toMessage(cardId, threadName))) {
+      throw new IllegalStateException(template + " template differs from the rebuilt card");
+    }
+  }
+
+  @Benchmark
+  public Message rebuildPerMessage() {
+    return LegacyCards.build(template, cardId, threadName);
+  }
+
+  @Benchmark
+  public Message stampTemplate() {
+    return template.toMessage(cardId, threadName);
+  }
+}
@@ -0,0 +1,50 @@
+package com.google.chat.bot.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Add-on event payloads as Chat publishes them to the bot's Pub/Sub topic, captured from a test
+ * space with user details replaced. They carry the fields the bot skips as well as the ones it
+ * reads, so parsing costs are realistic.
+ */
+public enum EventCorpus {
+  MESSAGE("message.json"),
+  SLASH_COMMAND("slash-command.json"),
+  BUTTON_CLICK("button-click.json"),
+  ADDED_TO_SPACE("added-to-space.json");
+
+  private final String resource;
+
+  EventCorpus(String resource) {
+    this.resource = resource;
+  }
+
+  /** The event JSON, i.e. the decoded {@code message.data}. */
+  byte[] event() {
+    try (InputStream in = EventCorpus.class.getResourceAsStream("/corpus/" + resource)) {
+      if (in == null) {
+        throw new IllegalStateException("Missing corpus file " + resource);
+      }
+      return in.readAllBytes();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** The event wrapped in a Pub/Sub push request body, as received by the endpoint. */
+  byte[] pushBody() {
+    String body =
+        "{\"message\":{\"attributes\":{\"ce-type\":\"google.workspace.chat.message.v1.created\"},"
+            + "\"data\":\""
+            + Base64.getEncoder().encodeToString(event())
+            + "\",\"messageId\":\"11223344556677\",\"message_id\":\"11223344556677\","
+            + "\"publishTime\":\"2024-05-14T09:21:04.114Z\","
+            + "\"publish_time\":\"2024-05-14T09:21:04.114Z\"},"
+            + "\"subscription\":\"projects/pubsub-test-bot/subscriptions/chat-events-push\"}";
+    return body.getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,81 @@
+package com.google.chat.bot.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.google.chat.bot.event.ChatEventClassifier;
+import com.google.chat.bot.event.ChatEventView;
+import com.google.chat.bot.event.PubSubEnvelope;
+import com.google.chat.bot.event.PubSubEnvelopeParser;
+import com.google.chat.bot.event.model.ChatEvent;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The inbound path of {@code BotController} for each {@link EventCorpus} payload, stage by stage:
+ * unwrapping the push envelope including the base64 decode, reading the typed event, and
+ * classifying it into a {@link ChatEventView}, which resolves the space, thread and sender.
+ * {@link #pipeline} runs all three as one push request does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventPipelineBenchmark {
+
+  @Param({"MESSAGE", "SLASH_COMMAND", "BUTTON_CLICK", "ADDED_TO_SPACE"})
+  public EventCorpus payload;
+
+  // Configured like BotController's mapper.
+  private final ObjectMapper objectMapper =
+      new ObjectMapper().registerModule(new BlackbirdModule());
+  private final PubSubEnvelopeParser envelopeParser =
+      new PubSubEnvelopeParser(objectMapper.getFactory());
+
+  private byte[] pushBody;
+  private byte[] eventJson;
+  private ChatEvent event;
+
+  @Setup
+  public void load() throws IOException {
+    pushBody = payload.pushBody();
+    eventJson = payload.event();
+    event = objectMapper.readValue(eventJson, ChatEvent.class);
+    if (ChatEventClassifier.classify(event).kind() == ChatEventView.Kind.UNKNOWN) {
+      throw new IllegalStateException(payload + " is not recognised by the classifier");
+    }
+  }
+
+  @Benchmark
+  public PubSubEnvelope parseEnvelope() throws IOException {
+    return envelopeParser.parse(pushBody);
+  }
+
+  @Benchmark
+  public ChatEvent readEvent() throws IOException {
+    return objectMapper.readValue(eventJson, ChatEvent.class);
+  }
+
+  @Benchmark
+  public ChatEventView classify() {
+    return ChatEventClassifier.classify(event);
+  }
+
+  @Benchmark
+  public ChatEventView pipeline() throws IOException {
+    PubSubEnvelope envelope = envelopeParser.parse(pushBody);
+    return ChatEventClassifier.classify(objectMapper.readValue(envelope.data(), ChatEvent.class));
+  }
+}
@@ -0,0 +1,139 @@
+package com.google.chat.bot.benchmarks;
+
+import com.google.apps.card.v1.Action;
+import com.google.apps.card.v1.Button;
+import com.google.apps.card.v1.ButtonList;
+import com.google.apps.card.v1.Card;
+import com.google.apps.card.v1.Card.CardHeader;
+import com.google.apps.card.v1.Card.Section;
+import com.google.apps.card.v1.DecoratedText;
+import com.google.apps.card.v1.OnClick;
+import com.google.apps.card.v1.SelectionInput;
+import com.google.apps.card.v1.Widget;
+import com.google.chat.bot.card.CardActions;
+import com.google.chat.bot.card.CardTemplate;
+import com.google.chat.v1.CardWithId;
+import com.google.chat.v1.Message;
+import com.google.chat.v1.Thread;
+
+/**
+ * The card messages as the bot used to build them, the whole builder graph per message. Kept as
+ * the baseline for {@link CardTemplateBenchmark}; the output equals {@link CardTemplate}'s.
+ */
+final class LegacyCards {
+
+  private LegacyCards() {}
+
+  static Message build(CardTemplate template, String cardId, String threadName) {
+    Card card =
+        switch (template) {
+          case INTERACTIVE -> buttonCard(
+              "Chaddon Interactive Card",
+              "Click Me",
+              CardActions.PARAM_ACTION_KEY,
+              CardActions.KEY_GENERIC_CLICK);
+          case UPDATE_MESSAGE -> buttonCard(
+              "Update Message Card",
+              "Click to Update",
+              CardActions.PARAM_ACTION_TYPE,
+              CardActions.TYPE_UPDATE_MESSAGE);
+          case STATIC_SUGGESTIONS -> staticSuggestionsCard();
+          case PLATFORM_SUGGESTIONS -> platformSuggestionsCard();
+          case ACCESSORY_WIDGET -> accessoryWidgetCard();
+        };
+
+    CardWithId cardWithId = CardWithId.newBuilder().setCardId(cardId).setCard(card).build();
+    Message.Builder messageBuilder = Message.newBuilder().addCardsV2(cardWithId);
+    if (threadName != null && !threadName.isEmpty()) {
+      messageBuilder.setThread(Thread.newBuilder().setName(threadName));
+    }
+    return messageBuilder.build();
+  }
+
+  private static Button button(String text, String key, String value) {
+    return Button.newBuilder()
+        .setText(text)
+        .setOnClick(
+            OnClick.newBuilder()
+                .setAction(
+                    Action.newBuilder()
+                        .setFunction(CardActions.FUNCTION)
+                        .addParameters(
+                            Action.ActionParameter.newBuilder().setKey(key).setValue(value))))
+        .build();
+  }
+
+  private static Card buttonCard(String title, String text, String key, String value) {
+    return Card.newBuilder()
+        .setHeader(CardHeader.newBuilder().setTitle(title))
+        .addSections(
+            Section.newBuilder()
+                .addWidgets(
+                    Widget.newBuilder()
+                        .setButtonList(
+                            ButtonList.newBuilder().addButtons(button(text, key, value)))))
+        .build();
+  }
+
+  private static Card staticSuggestionsCard() {
+    SelectionInput selectionInput =
+        SelectionInput.newBuilder()
+            .setName("static_selection_input")
+            .setLabel("Static Suggestions Input")
+            .setType(SelectionInput.SelectionType.MULTI_SELECT)
+            .addItems(
+                SelectionInput.SelectionItem.newBuilder().setText("Option 1").setValue("option_1"))
+            .addItems(
+                SelectionInput.SelectionItem.newBuilder().setText("Option 2").setValue("option_2"))
+            .addItems(
+                SelectionInput.SelectionItem.newBuilder().setText("Option 3").setValue("option_3"))
+            .build();
+    return formCard(
+        "Static Suggestions Card", selectionInput, CardActions.KEY_STATIC_SUGGESTIONS_SUBMIT);
+  }
+
+  private static Card platformSuggestionsCard() {
+    SelectionInput selectionInput =
+        SelectionInput.newBuilder()
+            .setName("platform_selection_input")
+            .setLabel("Platform Suggestions (Users)")
+            .setType(SelectionInput.SelectionType.MULTI_SELECT)
+            .setMultiSelectMaxSelectedItems(3)
+            .setPlatformDataSource(
+                SelectionInput.PlatformDataSource.newBuilder()
+                    .setCommonDataSource(SelectionInput.PlatformDataSource.CommonDataSource.USER))
+            .build();
+    return formCard(
+        "Platform Suggestions Card", selectionInput, CardActions.KEY_PLATFORM_SUGGESTIONS_SUBMIT);
+  }
+
+  private static Card formCard(String title, SelectionInput selectionInput, String submitKey) {
+    Button submitButton = button("Submit", CardActions.PARAM_ACTION_KEY, submitKey);
+    return Card.newBuilder()
+        .setHeader(CardHeader.newBuilder().setTitle(title))
+        .addSections(
+            Section.newBuilder()
+                .addWidgets(Widget.newBuilder().setSelectionInput(selectionInput))
+                .addWidgets(
+                    Widget.newBuilder()
+                        .setButtonList(ButtonList.newBuilder().addButtons(submitButton))))
+        .build();
+  }
+
+  private static Card accessoryWidgetCard() {
+    DecoratedText decoratedText =
+        DecoratedText.newBuilder()
+            .setText("This is a DecoratedText widget with an accessory button.")
+            .setButton(
+                button(
+                    "Accessory Button",
+                    CardActions.PARAM_ACTION_KEY,
+                    CardActions.KEY_ACCESSORY_WIDGET_CLICK))
+            .build();
+    return Card.newBuilder()
+        .setHeader(CardHeader.newBuilder().setTitle("Accessory Widget Card"))
+        .addSections(
+            Section.newBuilder().addWidgets(Widget.newBuilder().setDecoratedText(decoratedText)))
+        .build();
+  }
+}
@@ -0,0 +1,161 @@
+package com.google.chat.bot.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+/**
+ * The push requests a load test sends, drawn at random by weight. Each request gets a fresh
+ * {@code messageId} so the bot's de-duplication does not short-circuit it.
+ *
+ * <p>The built-in mix derives its events from the benchmark corpus: posted messages, the slash
+ * commands with IDs 1 to 6, a click for each card action key and the update-message action type,
+ * and added-to-space events. Alternatively every {@code .json} file of a directory is replayed,
+ * either a captured push request or a bare add-on event.
+ */
+final class EventMix {
+
+  // Card action parameters as in the bot's CardActions.
+  private static final List<String> ACTION_KEYS =
+      List.of(
+          "static_suggestions_submit",
+          "platform_suggestions_submit",
+          "accessory_widget_click",
+          "action_value");
+  private static final String ACTION_TYPE_UPDATE_MESSAGE = "update_message";
+  private static final int COMMAND_IDS = 6;
+
+  /** One kind of event and the base64 payloads it is drawn from. */
+  private record Group(String name, int weight, List<String> payloads) {}
+
+  private final List<Group> groups;
+  private final int totalWeight;
+
+  private EventMix(List<Group> groups) {
+    this.groups = List.copyOf(groups);
+    this.totalWeight = groups.stream().mapToInt(Group::weight).sum();
+    if (totalWeight <= 0) {
+      throw new IllegalArgumentException("The event mix is empty");
+    }
+  }
+
+  /**
+   * The built-in mix with the given weight per group: {@code message}, {@code command}, {@code
+   * click} and {@code added}.
+   */
+  static EventMix builtIn(Map<String, Integer> weights) {
+    ObjectMapper mapper = new ObjectMapper();
+    List<Group> groups = new ArrayList<>();
+
+    addGroup(groups, "message", weights, List.of(encode(mapper, corpus(mapper, "message.json"))));
+
+    List<String> commands = new ArrayList<>();
+    for (int id = 1; id <= COMMAND_IDS; id++) {
+      ObjectNode event = corpus(mapper, "slash-command.json");
+      ((ObjectNode) event.at("/chat/appCommandPayload/appCommandMetadata"))
+          .put("appCommandId", id);
+      commands.add(encode(mapper, event));
+    }
+    addGroup(groups, "command", weights, commands);
+
+    List<String> clicks = new ArrayList<>();
+    for (String key : ACTION_KEYS) {
+      clicks.add(encode(mapper, click(mapper, "action_key", key)));
+    }
+    clicks.add(encode(mapper, click(mapper, "action_type", ACTION_TYPE_UPDATE_MESSAGE)));
+    addGroup(groups, "click", weights, clicks);
+
+    addGroup(
+        groups, "added", weights, List.of(encode(mapper, corpus(mapper, "added-to-space.json"))));
+    return new EventMix(groups);
+  }
+
+  /** Every {@code .json} file of {@code directory}, equally weighted. */
+  static EventMix replay(Path directory) throws IOException {
+    ObjectMapper mapper = new ObjectMapper();
+    List<String> payloads = new ArrayList<>();
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path file : files.filter(p -> p.toString().endsWith(".json")).sorted().toList()) {
+        JsonNode json = mapper.readTree(file.toFile());
+        JsonNode data = json.path("message").path("data");
+        // A captured push request already carries the encoded event.
+        payloads.add(data.isTextual() ? data.asText() : encode(mapper, json));
+      }
+    }
+    if (payloads.isEmpty()) {
+      throw new IllegalArgumentException("No .json files in " + directory);
+    }
+    return new EventMix(List.of(new Group(directory.getFileName().toString(), 1, payloads)));
+  }
+
+  /** Picks an event and wraps it in a push request body with {@code messageId}. */
+  Request next(String messageId) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int draw = random.nextInt(totalWeight);
+    Group group = null;
+    for (Group candidate : groups) {
+      draw -= candidate.weight();
+      if (draw < 0) {
+        group = candidate;
+        break;
+      }
+    }
+    String data = group.payloads().get(random.nextInt(group.payloads().size()));
+    String body =
+        "{\"message\":{\"data\":\""
+            + data
+            + "\",\"messageId\":\""
+            + messageId
+            + "\"},\"subscription\":\"projects/loadtest/subscriptions/chat-events\"}";
+    return new Request(group.name(), body.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /** A push request body and the group its event came from. */
+  record Request(String group, byte[] body) {}
+
+  private static void addGroup(
+      List<Group> groups, String name, Map<String, Integer> weights, List<String> payloads) {
+    int weight = weights.getOrDefault(name, 0);
+    if (weight > 0) {
+      groups.add(new Group(name, weight, payloads));
+    }
+  }
+
+  private static ObjectNode click(ObjectMapper mapper, String parameter, String value) {
+    ObjectNode event = corpus(mapper, "button-click.json");
+    ObjectNode common = (ObjectNode) event.get("commonEventObject");
+    common.putObject("parameters").put(parameter, value);
+    return event;
+  }
+
+  private static ObjectNode corpus(ObjectMapper mapper, String name) {
+    try (InputStream in = EventMix.class.getResourceAsStream("/corpus/" + name)) {
+      if (in == null) {
+        throw new IllegalStateException("Missing corpus file " + name);
+      }
+      return (ObjectNode) mapper.readTree(in);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static String encode(ObjectMapper mapper, JsonNode event) {
+    try {
+      return Base64.getEncoder().encodeToString(mapper.writeValueAsBytes(event));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
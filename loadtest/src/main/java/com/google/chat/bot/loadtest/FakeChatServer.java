@@ -0,0 +1,347 @@
+package com.google.chat.bot.loadtest;
+
+import com.google.chat.v1.CreateMessageRequest;
+import com.google.chat.v1.Message;
+import com.google.chat.v1.UpdateMessageRequest;
+import com.google.protobuf.Timestamp;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.MethodDescriptor;
+import io.grpc.Server;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import io.grpc.protobuf.ProtoUtils;
+import io.grpc.stub.ServerCalls;
+import io.grpc.stub.StreamObserver;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Stand-in for the Chat API's {@code CreateMessage} and {@code UpdateMessage} RPCs, for driving
+ * the bot at full rate without touching {@code chat.googleapis.com}. Answers are delayed according
+ * to a {@link LatencyModel}, a configurable share of calls fails with a given status, and every
+ * call is counted and, up to a limit, recorded.
+ *
+ * <p>The server listens on a plaintext TCP port of the loopback interface only, which the bot
+ * reaches with {@code bot.chat.endpoint=localhost:<port>} and {@code bot.chat.plaintext=true}, and
+ * optionally under an in-process name for clients in the same JVM. The Chat client library ships
+ * no generated service stub, so the two methods are described here by hand.
+ */
+public final class FakeChatServer implements AutoCloseable {
+
+  private static final String SERVICE = "google.chat.v1.ChatService";
+
+  static final MethodDescriptor<CreateMessageRequest, Message> CREATE_MESSAGE =
+      unary("CreateMessage", CreateMessageRequest.getDefaultInstance());
+  static final MethodDescriptor<UpdateMessageRequest, Message> UPDATE_MESSAGE =
+      unary("UpdateMessage", UpdateMessageRequest.getDefaultInstance());
+
+  /** One answered call, in arrival order. */
+  public record RecordedCall(
+      String method, String resource, String text, Status.Code status, long latencyNanos) {}
+
+  private final List<Server> servers = new ArrayList<>();
+  private final ScheduledExecutorService responder;
+  private final int recordLimit;
+  private final Queue<RecordedCall> recorded = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger recordedCount = new AtomicInteger();
+  private final Map<String, LongAdder> counts = new ConcurrentHashMap<>();
+  private final AtomicLong messageIds = new AtomicLong();
+  private volatile LatencyModel latency;
+  private volatile Map<Status.Code, Double> faults;
+
+  private FakeChatServer(Builder builder) {
+    this.latency = builder.latency;
+    this.faults = new EnumMap<>(builder.faults);
+    this.recordLimit = builder.recordLimit;
+    this.responder =
+        Executors.newScheduledThreadPool(
+            builder.responderThreads,
+            runnable -> {
+              Thread thread = new Thread(runnable, "fake-chat-responder");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /** The bound TCP port, useful when the server was started on port 0. */
+  public int port() {
+    return servers.get(0).getPort();
+  }
+
+  /** Replaces the latency model of calls arriving from now on. */
+  public void setLatency(LatencyModel latency) {
+    this.latency = latency;
+  }
+
+  /**
+   * Replaces the injected failures: each entry is the share of calls, between 0 and 1, that fail
+   * with that status. Switching to an empty map ends an injected outage.
+   */
+  public void setFaults(Map<Status.Code, Double> faults) {
+    this.faults = new EnumMap<>(faults);
+  }
+
+  /** Calls answered so far for {@code method} with {@code status}. */
+  public long count(String method, Status.Code status) {
+    LongAdder count = counts.get(method + " " + status);
+    return count != null ? count.sum() : 0;
+  }
+
+  public List<RecordedCall> recordedCalls() {
+    return List.copyOf(recorded);
+  }
+
+  public Map<String, Long> counts() {
+    Map<String, Long> snapshot = new TreeMap<>();
+    counts.forEach((key, count) -> snapshot.put(key, count.sum()));
+    return snapshot;
+  }
+
+  @Override
+  public void close() throws InterruptedException {
+    for (Server server : servers) {
+      server.shutdown();
+    }
+    for (Server server : servers) {
+      server.awaitTermination(5, TimeUnit.SECONDS);
+    }
+    responder.shutdownNow();
+  }
+
+  private ServerServiceDefinition service() {
+    return ServerServiceDefinition.builder(SERVICE)
+        .addMethod(
+            CREATE_MESSAGE,
+            ServerCalls.asyncUnaryCall(
+                (request, observer) ->
+                    answer(
+                        "CreateMessage",
+                        request.getParent(),
+                        request.getMessage().getText(),
+                        observer,
+                        () -> created(request))))
+        .addMethod(
+            UPDATE_MESSAGE,
+            ServerCalls.asyncUnaryCall(
+                (request, observer) ->
+                    answer(
+                        "UpdateMessage",
+                        request.getMessage().getName(),
+                        request.getMessage().getText(),
+                        observer,
+                        request::getMessage)))
+        .build();
+  }
+
+  private Message created(CreateMessageRequest request) {
+    long nowMillis = System.currentTimeMillis();
+    Message.Builder message =
+        request.getMessage().toBuilder()
+            .setName(request.getParent() + "/messages/fake-" + messageIds.incrementAndGet())
+            .setCreateTime(
+                Timestamp.newBuilder()
+                    .setSeconds(nowMillis / 1000)
+                    .setNanos((int) (nowMillis % 1000) * 1_000_000));
+    if (!request.getMessage().hasThread()) {
+      message.getThreadBuilder().setName(request.getParent() + "/threads/fake");
+    }
+    return message.build();
+  }
+
+  private void answer(
+      String method,
+      String resource,
+      String text,
+      StreamObserver<Message> observer,
+      Supplier<Message> response) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    long delay = Math.max(0L, latency.nextNanos(random));
+    Status.Code failure = pickFault(random);
+    Runnable reply =
+        () -> {
+          counts.computeIfAbsent(method + " " + failure, k -> new LongAdder()).increment();
+          record(new RecordedCall(method, resource, text, failure, delay));
+          if (failure == Status.Code.OK) {
+            observer.onNext(response.get());
+            observer.onCompleted();
+          } else {
+            observer.onError(
+                Status.fromCode(failure)
+                    .withDescription("Injected by FakeChatServer")
+                    .asException());
+          }
+        };
+    if (delay == 0L) {
+      reply.run();
+    } else {
+      responder.schedule(reply, delay, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private Status.Code pickFault(ThreadLocalRandom random) {
+    double draw = random.nextDouble();
+    for (Map.Entry<Status.Code, Double> fault : faults.entrySet()) {
+      draw -= fault.getValue();
+      if (draw < 0) {
+        return fault.getKey();
+      }
+    }
+    return Status.Code.OK;
+  }
+
+  private void record(RecordedCall call) {
+    if (recordedCount.incrementAndGet() <= recordLimit) {
+      recorded.add(call);
+    } else {
+      recordedCount.decrementAndGet();
+    }
+  }
+
+  private static <ReqT extends com.google.protobuf.Message>
+      MethodDescriptor<ReqT, Message> unary(String method, ReqT requestPrototype) {
+    return MethodDescriptor.<ReqT, Message>newBuilder()
+        .setType(MethodDescriptor.MethodType.UNARY)
+        .setFullMethodName(MethodDescriptor.generateFullMethodName(SERVICE, method))
+        .setRequestMarshaller(ProtoUtils.marshaller(requestPrototype))
+        .setResponseMarshaller(ProtoUtils.marshaller(Message.getDefaultInstance()))
+        .build();
+  }
+
+  /**
+   * Runs the server until the process is stopped. Options: {@code --port=9090}, {@code
+   * --latency=lognormal:40ms,400ms} (see {@link LatencyModel#parse}), {@code --unavailable=0.01}
+   * and {@code --resource-exhausted=0.01}, the shares of calls failing with that status.
+   */
+  public static void main(String[] args) throws Exception {
+    Map<String, String> options = Options.parse(args);
+    FakeChatServer server =
+        configure(options).port(Integer.parseInt(options.getOrDefault("port", "9090"))).start();
+    System.out.printf(
+        "Fake Chat API listening on localhost:%d; start the bot with"
+            + " --bot.chat.endpoint=localhost:%d --bot.chat.plaintext=true%n",
+        server.port(),
+        server.port());
+    Runtime.getRuntime()
+        .addShutdownHook(
+            new Thread(
+                () -> {
+                  System.out.println("Calls answered: " + server.counts());
+                  try {
+                    server.close();
+                  } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                  }
+                }));
+    Thread.currentThread().join();
+  }
+
+  /**
+   * A builder set up from the {@code latency}, {@code unavailable} and {@code resource-exhausted}
+   * command-line options.
+   */
+  static Builder configure(Map<String, String> options) {
+    Builder builder =
+        builder().latency(LatencyModel.parse(options.getOrDefault("latency", "none")));
+    double unavailable = Double.parseDouble(options.getOrDefault("unavailable", "0"));
+    double exhausted = Double.parseDouble(options.getOrDefault("resource-exhausted", "0"));
+    if (unavailable > 0) {
+      builder.fault(Status.Code.UNAVAILABLE, unavailable);
+    }
+    if (exhausted > 0) {
+      builder.fault(Status.Code.RESOURCE_EXHAUSTED, exhausted);
+    }
+    return builder;
+  }
+
+  public static final class Builder {
+    private int port = 0;
+    private String inProcessName;
+    private LatencyModel latency = LatencyModel.none();
+    private final Map<Status.Code, Double> faults = new EnumMap<>(Status.Code.class);
+    private int recordLimit = 100_000;
+    private int responderThreads = 4;
+
+    private Builder() {}
+
+    /** TCP port to listen on; {@code 0} picks a free one. */
+    public Builder port(int port) {
+      this.port = port;
+      return this;
+    }
+
+    /** Also serve in-process under this name, for clients in the same JVM. */
+    public Builder inProcessName(String inProcessName) {
+      this.inProcessName = inProcessName;
+      return this;
+    }
+
+    public Builder latency(LatencyModel latency) {
+      this.latency = latency;
+      return this;
+    }
+
+    public Builder fault(Status.Code status, double share) {
+      if (status == Status.Code.OK || share < 0 || share > 1) {
+        throw new IllegalArgumentException("Invalid fault " + status + " " + share);
+      }
+      faults.put(status, share);
+      return this;
+    }
+
+    /** Calls kept by {@link #recordedCalls}; later ones are only counted. */
+    public Builder recordLimit(int recordLimit) {
+      this.recordLimit = recordLimit;
+      return this;
+    }
+
+    public Builder responderThreads(int responderThreads) {
+      this.responderThreads = responderThreads;
+      return this;
+    }
+
+    public FakeChatServer start() throws IOException {
+      FakeChatServer fake = new FakeChatServer(this);
+      ServerServiceDefinition service = fake.service();
+      fake.servers.add(
+          // Plaintext and unauthenticated, so never reachable from other hosts.
+          NettyServerBuilder.forAddress(
+                  new InetSocketAddress(InetAddress.getLoopbackAddress(), port),
+                  InsecureServerCredentials.create())
+              .addService(service)
+              .build()
+              .start());
+      if (inProcessName != null) {
+        fake.servers.add(
+            InProcessServerBuilder.forName(inProcessName)
+                .directExecutor()
+                .addService(service)
+                .build()
+                .start());
+      }
+      return fake;
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package com.google.chat.bot.loadtest;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/** Distribution of the time {@link FakeChatServer} takes to answer a call. */
+@FunctionalInterface
+public interface LatencyModel {
+
+  // z-score of the 99th percentile of the standard normal distribution.
+  double Z_99 = 2.3263;
+
+  long nextNanos(ThreadLocalRandom random);
+
+  static LatencyModel none() {
+    return random -> 0L;
+  }
+
+  static LatencyModel constant(Duration latency) {
+    long nanos = latency.toNanos();
+    return random -> nanos;
+  }
+
+  static LatencyModel uniform(Duration min, Duration max) {
+    long low = min.toNanos();
+    long high = max.toNanos();
+    if (high < low) {
+      throw new IllegalArgumentException("max must not be below min");
+    }
+    return random -> low + (long) (random.nextDouble() * (high - low));
+  }
+
+  /**
+   * Log-normal latency with the given median and 99th percentile, the usual long-tailed shape of
+   * RPC latency.
+   */
+  static LatencyModel logNormal(Duration median, Duration p99) {
+    double mu = Math.log(median.toNanos());
+    double sigma = (Math.log(p99.toNanos()) - mu) / Z_99;
+    if (!(sigma >= 0)) {
+      throw new IllegalArgumentException("p99 must not be below the median");
+    }
+    return random -> (long) Math.exp(mu + sigma * random.nextGaussian());
+  }
+
+  /**
+   * Parses {@code none}, {@code constant:50ms}, {@code uniform:20ms-80ms} or {@code
+   * lognormal:40ms,400ms} (median, p99). Durations take an {@code ms} or {@code s} suffix.
+   */
+  static LatencyModel parse(String spec) {
+    String[] kindAndArgs = spec.trim().toLowerCase(Locale.ROOT).split(":", 2);
+    String args = kindAndArgs.length > 1 ? kindAndArgs[1] : "";
+    return switch (kindAndArgs[0]) {
+      case "none" -> none();
+      case "constant" -> constant(Options.duration(args));
+      case "uniform" -> {
+        String[] bounds = args.split("-", 2);
+        yield uniform(Options.duration(bounds[0]), Options.duration(bounds[1]));
+      }
+      case "lognormal" -> {
+        String[] points = args.split(",", 2);
+        yield logNormal(Options.duration(points[0]), Options.duration(points[1]));
+      }
+      default -> throw new IllegalArgumentException("Unknown latency model: " + spec);
+    };
+  }
+}
@@ -0,0 +1,277 @@
+package com.google.chat.bot.loadtest;
+
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Sends Pub/Sub push requests to the bot's {@code /} endpoint at a fixed rate and reports the
+ * latency distribution.
+ *
+ * <p>The load is open-loop: request {@code i} is due at {@code start + i / rate} whether or not
+ * earlier ones were answered, as with real Pub/Sub traffic. Response time is measured from that
+ * due time rather than from the actual send, so requests held up behind a stalled server or a
+ * lagging generator are charged for the wait. This corrects for coordinated omission, which would
+ * otherwise hide exactly the stalls a load test is looking for. Service time, measured from the
+ * send, is reported alongside; a response time far above it means requests are queueing.
+ *
+ * <p>Options, all {@code --name=value}:
+ *
+ * <ul>
+ *   <li>{@code target}: push endpoint, default {@code http://localhost:8080/}
+ *   <li>{@code rate}: requests per second, default {@code 100}
+ *   <li>{@code duration} and {@code warmup}: measured run and the unrecorded run before it,
+ *       defaults {@code 60s} and {@code 10s}
+ *   <li>{@code mix}: weights of the built-in event groups, default {@code
+ *       message:40,command:30,click:25,added:5}
+ *   <li>{@code corpus}: directory of captured push requests or events to replay instead
+ *   <li>{@code timeout}: per-request timeout, default {@code 30s}
+ *   <li>{@code hgrm}: file to write the response time percentile distribution to
+ *   <li>{@code fake-chat-port}: also run a {@link FakeChatServer} on this port, configured with
+ *       {@code latency}, {@code unavailable} and {@code resource-exhausted} as in its {@code main}
+ * </ul>
+ */
+public final class LoadGenerator {
+
+  // Microseconds, up to an hour.
+  private static final long HIGHEST_TRACKABLE = TimeUnit.HOURS.toMicros(1);
+  private static final int SIGNIFICANT_DIGITS = 3;
+  private static final Duration REPORT_INTERVAL = Duration.ofSeconds(5);
+  private static final String DEFAULT_MIX = "message:40,command:30,click:25,added:5";
+
+  private final HttpClient client;
+  private final URI target;
+  private final EventMix mix;
+  private final double rate;
+  private final Duration timeout;
+
+  private final Histogram responseTime =
+      new ConcurrentHistogram(HIGHEST_TRACKABLE, SIGNIFICANT_DIGITS);
+  private final Histogram serviceTime =
+      new ConcurrentHistogram(HIGHEST_TRACKABLE, SIGNIFICANT_DIGITS);
+  private final Recorder intervalResponseTime =
+      new Recorder(HIGHEST_TRACKABLE, SIGNIFICANT_DIGITS);
+  private final Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+  private final Map<String, LongAdder> groups = new ConcurrentHashMap<>();
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicLong maxSendLagNanos = new AtomicLong();
+  private final AtomicLong firstDone = new AtomicLong(Long.MAX_VALUE);
+  private final AtomicLong lastDone = new AtomicLong(Long.MIN_VALUE);
+
+  LoadGenerator(URI target, EventMix mix, double rate, Duration timeout) {
+    this.client =
+        HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    this.target = target;
+    this.mix = mix;
+    this.rate = rate;
+    this.timeout = timeout;
+  }
+
+  public static void main(String[] args) throws Exception {
+    Map<String, String> options = Options.parse(args);
+    EventMix mix =
+        options.containsKey("corpus")
+            ? EventMix.replay(Path.of(options.get("corpus")))
+            : EventMix.builtIn(weights(options.getOrDefault("mix", DEFAULT_MIX)));
+
+    FakeChatServer fakeChat = null;
+    if (options.containsKey("fake-chat-port")) {
+      fakeChat =
+          FakeChatServer.configure(options)
+              .port(Integer.parseInt(options.get("fake-chat-port")))
+              .recordLimit(0)
+              .start();
+      System.out.printf("Fake Chat API listening on localhost:%d%n", fakeChat.port());
+    }
+
+    LoadGenerator generator =
+        new LoadGenerator(
+            URI.create(options.getOrDefault("target", "http://localhost:8080/")),
+            mix,
+            Double.parseDouble(options.getOrDefault("rate", "100")),
+            Options.duration(options.getOrDefault("timeout", "30s")));
+    generator.run(
+        Options.duration(options.getOrDefault("warmup", "10s")),
+        Options.duration(options.getOrDefault("duration", "60s")));
+    generator.report(System.out);
+    if (options.containsKey("hgrm")) {
+      Path hgrm = Path.of(options.get("hgrm"));
+      try (PrintStream out = new PrintStream(Files.newOutputStream(hgrm))) {
+        generator.responseTime.outputPercentileDistribution(out, 1000.0);
+      }
+    }
+    if (fakeChat != null) {
+      System.out.println("Fake Chat API calls: " + fakeChat.counts());
+      fakeChat.close();
+    }
+  }
+
+  void run(Duration warmup, Duration duration) throws InterruptedException {
+    long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+    long start = System.nanoTime();
+    long recordFrom = start + warmup.toNanos();
+    long end = recordFrom + duration.toNanos();
+    System.out.printf(
+        Locale.ROOT,
+        "Sending %.1f requests/s to %s: %ds warm-up, %ds measured%n",
+        rate,
+        target,
+        warmup.toSeconds(),
+        duration.toSeconds());
+
+    ScheduledExecutorService reporter =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "load-reporter");
+              thread.setDaemon(true);
+              return thread;
+            });
+    reporter.scheduleAtFixedRate(
+        () -> reportInterval(start),
+        REPORT_INTERVAL.toNanos(),
+        REPORT_INTERVAL.toNanos(),
+        TimeUnit.NANOSECONDS);
+    try {
+      for (long i = 0; ; i++) {
+        long due = start + i * intervalNanos;
+        if (due >= end) {
+          break;
+        }
+        long wait;
+        while ((wait = due - System.nanoTime()) > 0) {
+          LockSupport.parkNanos(wait);
+        }
+        send(due, "lt-" + start + "-" + i, due >= recordFrom);
+      }
+      // Outstanding requests still count; wait for them up to the request timeout.
+      long deadline = System.nanoTime() + timeout.toNanos();
+      while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+        Thread.sleep(10);
+      }
+    } finally {
+      reporter.shutdownNow();
+    }
+  }
+
+  private void send(long due, String messageId, boolean record) {
+    EventMix.Request request = mix.next(messageId);
+    long sent = System.nanoTime();
+    maxSendLagNanos.accumulateAndGet(sent - due, Math::max);
+    inFlight.incrementAndGet();
+    client
+        .sendAsync(
+            HttpRequest.newBuilder(target)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(request.body()))
+                .build(),
+            HttpResponse.BodyHandlers.discarding())
+        .whenComplete(
+            (response, error) -> {
+              long done = System.nanoTime();
+              inFlight.decrementAndGet();
+              long responseMicros = TimeUnit.NANOSECONDS.toMicros(done - due);
+              intervalResponseTime.recordValue(Math.min(responseMicros, HIGHEST_TRACKABLE));
+              if (!record) {
+                return;
+              }
+              String status =
+                  error != null ? failureName(error) : "HTTP " + response.statusCode();
+              statuses.computeIfAbsent(status, k -> new LongAdder()).increment();
+              groups.computeIfAbsent(request.group(), k -> new LongAdder()).increment();
+              firstDone.accumulateAndGet(done, Math::min);
+              lastDone.accumulateAndGet(done, Math::max);
+              responseTime.recordValue(Math.min(responseMicros, HIGHEST_TRACKABLE));
+              serviceTime.recordValue(
+                  Math.min(TimeUnit.NANOSECONDS.toMicros(done - sent), HIGHEST_TRACKABLE));
+            });
+  }
+
+  private void reportInterval(long start) {
+    Histogram interval = intervalResponseTime.getIntervalHistogram();
+    System.out.printf(
+        Locale.ROOT,
+        "[%4ds] %6d responses, p50 %8.2f ms, p99 %8.2f ms, max %8.2f ms, %d in flight%n",
+        TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start),
+        interval.getTotalCount(),
+        interval.getValueAtPercentile(50) / 1000.0,
+        interval.getValueAtPercentile(99) / 1000.0,
+        interval.getMaxValue() / 1000.0,
+        inFlight.get());
+  }
+
+  void report(PrintStream out) {
+    long count = responseTime.getTotalCount();
+    double seconds = count > 1 ? (lastDone.get() - firstDone.get()) / 1e9 : 0.0;
+    out.println();
+    out.printf(Locale.ROOT, "Responses: %d, by status %s%n", count, snapshot(statuses));
+    out.printf(Locale.ROOT, "Events by group: %s%n", snapshot(groups));
+    out.printf(
+        Locale.ROOT,
+        "Target rate %.1f/s, achieved %.1f/s; generator lagged by up to %.2f ms%n",
+        rate,
+        seconds > 0 ? count / seconds : 0.0,
+        maxSendLagNanos.get() / 1e6);
+    printPercentiles(out, "Response time (from due time, corrected)", responseTime);
+    printPercentiles(out, "Service time (from send)", serviceTime);
+  }
+
+  private static void printPercentiles(PrintStream out, String title, Histogram histogram) {
+    out.printf(
+        Locale.ROOT,
+        "%-42s p50 %8.2f  p90 %8.2f  p99 %8.2f  p99.9 %8.2f  p99.99 %8.2f  max %8.2f ms%n",
+        title,
+        histogram.getValueAtPercentile(50) / 1000.0,
+        histogram.getValueAtPercentile(90) / 1000.0,
+        histogram.getValueAtPercentile(99) / 1000.0,
+        histogram.getValueAtPercentile(99.9) / 1000.0,
+        histogram.getValueAtPercentile(99.99) / 1000.0,
+        histogram.getMaxValue() / 1000.0);
+  }
+
+  private static String failureName(Throwable error) {
+    Throwable cause =
+        error instanceof CompletionException && error.getCause() != null
+            ? error.getCause()
+            : error;
+    return cause.getClass().getSimpleName();
+  }
+
+  private static Map<String, Long> snapshot(Map<String, LongAdder> counts) {
+    Map<String, Long> snapshot = new TreeMap<>();
+    counts.forEach((key, count) -> snapshot.put(key, count.sum()));
+    return snapshot;
+  }
+
+  private static Map<String, Integer> weights(String spec) {
+    Map<String, Integer> weights = new TreeMap<>();
+    for (String entry : spec.split(",")) {
+      String[] nameAndWeight = entry.trim().split(":", 2);
+      weights.put(nameAndWeight[0], Integer.parseInt(nameAndWeight[1]));
+    }
+    return weights;
+  }
+}
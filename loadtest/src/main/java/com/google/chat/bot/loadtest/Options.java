@@ -0,0 +1,35 @@
+package com.google.chat.bot.loadtest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/** {@code --name=value} command-line options of the load-testing tools. */
+final class Options {
+
+  private Options() {}
+
+  static Map<String, String> parse(String[] args) {
+    Map<String, String> options = new HashMap<>();
+    for (String arg : args) {
+      int equals = arg.indexOf('=');
+      if (!arg.startsWith("--") || equals < 0) {
+        throw new IllegalArgumentException("Expected --name=value, got " + arg);
+      }
+      options.put(arg.substring(2, equals), arg.substring(equals + 1));
+    }
+    return options;
+  }
+
+  /** Parses a duration with an {@code ms} or {@code s} suffix. */
+  static Duration duration(String value) {
+    String trimmed = value.trim();
+    if (trimmed.endsWith("ms")) {
+      return Duration.ofMillis(Long.parseLong(trimmed.substring(0, trimmed.length() - 2)));
+    }
+    if (trimmed.endsWith("s")) {
+      return Duration.ofSeconds(Long.parseLong(trimmed.substring(0, trimmed.length() - 1)));
+    }
+    throw new IllegalArgumentException("Duration needs an ms or s suffix: " + value);
+  }
+}
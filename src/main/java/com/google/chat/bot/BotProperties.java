@@ -0,0 +1,650 @@
+package com.google.chat.bot;
+
+import com.google.api.gax.rpc.StatusCode;
+import com.google.chat.bot.event.ChatEventView;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/** Runtime switches for the bot, bound from the {@code bot.*} properties. */
+@ConfigurationProperties(prefix = "bot")
+public class BotProperties {
+
+  private final Dispatch dispatch = new Dispatch();
+  private final VirtualThreads virtualThreads = new VirtualThreads();
+  private final Chat chat = new Chat();
+  private final Echo echo = new Echo();
+  private final Dedup dedup = new Dedup();
+  private final Card card = new Card();
+  private final Tracing tracing = new Tracing();
+  private final Logging logging = new Logging();
+
+  public Dispatch getDispatch() {
+    return dispatch;
+  }
+
+  public VirtualThreads getVirtualThreads() {
+    return virtualThreads;
+  }
+
+  public Chat getChat() {
+    return chat;
+  }
+
+  public Echo getEcho() {
+    return echo;
+  }
+
+  public Dedup getDedup() {
+    return dedup;
+  }
+
+  public Card getCard() {
+    return card;
+  }
+
+  public Tracing getTracing() {
+    return tracing;
+  }
+
+  public Logging getLogging() {
+    return logging;
+  }
+
+  public enum DispatchMode {
+    /** Process the event on the push request thread before acknowledging it. */
+    SYNC,
+    /** Validate the envelope, queue the event and acknowledge immediately. */
+    ASYNC,
+    /**
+     * Like {@link #ASYNC}, but events are queued on a per-space lane so each space is handled in
+     * arrival order.
+     */
+    ORDERED
+  }
+
+  public static class Dispatch {
+    private DispatchMode mode = DispatchMode.SYNC;
+    private int queueCapacity = 1000;
+    private int workers = 8;
+    private int lanes = 16;
+    // 429 and 503 both make Pub/Sub back off the push subscription.
+    private int queueFullStatus = 429;
+
+    public DispatchMode getMode() {
+      return mode;
+    }
+
+    public void setMode(DispatchMode mode) {
+      this.mode = mode;
+    }
+
+    public int getQueueCapacity() {
+      return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+      this.queueCapacity = queueCapacity;
+    }
+
+    public int getWorkers() {
+      return workers;
+    }
+
+    public void setWorkers(int workers) {
+      this.workers = workers;
+    }
+
+    public int getLanes() {
+      return lanes;
+    }
+
+    public void setLanes(int lanes) {
+      this.lanes = lanes;
+    }
+
+    public int getQueueFullStatus() {
+      return queueFullStatus;
+    }
+
+    public void setQueueFullStatus(int queueFullStatus) {
+      this.queueFullStatus = queueFullStatus;
+    }
+  }
+
+  public enum EchoMode {
+    /** Never post the "Received Event" echo. */
+    OFF,
+    /** Echo every non-bot event. */
+    ALWAYS,
+    /** Echo one event in {@code sample-rate}, at most once per {@code per-space-interval}. */
+    SAMPLED
+  }
+
+  public static class Echo {
+    private EchoMode mode = EchoMode.ALWAYS;
+    private int sampleRate = 100;
+    private Duration perSpaceInterval = Duration.ZERO;
+    // Send the echo from a background sender after the handler's reply instead of alongside it.
+    private boolean deferred = false;
+    private int deferredQueueCapacity = 1000;
+    // Keeps the echo well inside the Chat message size limit.
+    private int maxChars = 4000;
+
+    public EchoMode getMode() {
+      return mode;
+    }
+
+    public void setMode(EchoMode mode) {
+      this.mode = mode;
+    }
+
+    public int getSampleRate() {
+      return sampleRate;
+    }
+
+    public void setSampleRate(int sampleRate) {
+      this.sampleRate = sampleRate;
+    }
+
+    public Duration getPerSpaceInterval() {
+      return perSpaceInterval;
+    }
+
+    public void setPerSpaceInterval(Duration perSpaceInterval) {
+      this.perSpaceInterval = perSpaceInterval;
+    }
+
+    public boolean isDeferred() {
+      return deferred;
+    }
+
+    public void setDeferred(boolean deferred) {
+      this.deferred = deferred;
+    }
+
+    public int getDeferredQueueCapacity() {
+      return deferredQueueCapacity;
+    }
+
+    public void setDeferredQueueCapacity(int deferredQueueCapacity) {
+      this.deferredQueueCapacity = deferredQueueCapacity;
+    }
+
+    public int getMaxChars() {
+      return maxChars;
+    }
+
+    public void setMaxChars(int maxChars) {
+      this.maxChars = maxChars;
+    }
+  }
+
+  public static class Dedup {
+    private boolean enabled = true;
+    private long maxSize = 100_000;
+    // Pub/Sub redeliveries normally arrive within minutes of the first attempt.
+    private Duration ttl = Duration.ofHours(1);
+    private final Journal journal = new Journal();
+
+    public Journal getJournal() {
+      return journal;
+    }
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public long getMaxSize() {
+      return maxSize;
+    }
+
+    public void setMaxSize(long maxSize) {
+      this.maxSize = maxSize;
+    }
+
+    public Duration getTtl() {
+      return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+      this.ttl = ttl;
+    }
+  }
+
+  public static class Journal {
+    private boolean enabled = false;
+    // Cloud Run's /tmp is an in-memory filesystem that lives as long as the container.
+    private String directory = "/tmp/pubsub-dedup";
+    private int entriesPerSegment = 131_072;
+    private int maxSegments = 4;
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public String getDirectory() {
+      return directory;
+    }
+
+    public void setDirectory(String directory) {
+      this.directory = directory;
+    }
+
+    public int getEntriesPerSegment() {
+      return entriesPerSegment;
+    }
+
+    public void setEntriesPerSegment(int entriesPerSegment) {
+      this.entriesPerSegment = entriesPerSegment;
+    }
+
+    public int getMaxSegments() {
+      return maxSegments;
+    }
+
+    public void setMaxSegments(int maxSegments) {
+      this.maxSegments = maxSegments;
+    }
+  }
+
+  public static class VirtualThreads {
+    // Requires a Java 21 runtime; ignored with a warning on older JVMs.
+    private boolean enabled = false;
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+  }
+
+  public static class Chat {
+    private String endpoint = "chat.googleapis.com:443";
+    // Connects without TLS or credentials; only for a local stand-in of the Chat API.
+    private boolean plaintext = false;
+    // Upper bound on in-flight Chat API calls per instance.
+    private int maxConcurrentCalls = 200;
+    private final RateLimit rateLimit = new RateLimit();
+    private final Retry retry = new Retry();
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker();
+    private final Coalesce coalesce = new Coalesce();
+
+    public String getEndpoint() {
+      return endpoint;
+    }
+
+    public void setEndpoint(String endpoint) {
+      this.endpoint = endpoint;
+    }
+
+    public boolean isPlaintext() {
+      return plaintext;
+    }
+
+    public void setPlaintext(boolean plaintext) {
+      this.plaintext = plaintext;
+    }
+
+    public int getMaxConcurrentCalls() {
+      return maxConcurrentCalls;
+    }
+
+    public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+      this.maxConcurrentCalls = maxConcurrentCalls;
+    }
+
+    public RateLimit getRateLimit() {
+      return rateLimit;
+    }
+
+    public Retry getRetry() {
+      return retry;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+      return circuitBreaker;
+    }
+
+    public Coalesce getCoalesce() {
+      return coalesce;
+    }
+  }
+
+  public static class Coalesce {
+    private boolean enabled = false;
+    private Duration window = Duration.ofMillis(100);
+    // Chat messages are limited to 4096 characters.
+    private int maxChars = 4000;
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public Duration getWindow() {
+      return window;
+    }
+
+    public void setWindow(Duration window) {
+      this.window = window;
+    }
+
+    public int getMaxChars() {
+      return maxChars;
+    }
+
+    public void setMaxChars(int maxChars) {
+      this.maxChars = maxChars;
+    }
+  }
+
+  public static class CircuitBreaker {
+    private boolean enabled = false;
+    private int windowSize = 50;
+    private int minimumCalls = 20;
+    // Percentages of the calls in the window.
+    private int failureRateThreshold = 50;
+    private int slowCallRateThreshold = 80;
+    private Duration slowCallDuration = Duration.ofSeconds(5);
+    private Duration openDuration = Duration.ofSeconds(30);
+    private int halfOpenCalls = 3;
+    // Calls kept for replay while open; 0 rejects them outright.
+    private int spoolCapacity = 0;
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public int getWindowSize() {
+      return windowSize;
+    }
+
+    public void setWindowSize(int windowSize) {
+      this.windowSize = windowSize;
+    }
+
+    public int getMinimumCalls() {
+      return minimumCalls;
+    }
+
+    public void setMinimumCalls(int minimumCalls) {
+      this.minimumCalls = minimumCalls;
+    }
+
+    public int getFailureRateThreshold() {
+      return failureRateThreshold;
+    }
+
+    public void setFailureRateThreshold(int failureRateThreshold) {
+      this.failureRateThreshold = failureRateThreshold;
+    }
+
+    public int getSlowCallRateThreshold() {
+      return slowCallRateThreshold;
+    }
+
+    public void setSlowCallRateThreshold(int slowCallRateThreshold) {
+      this.slowCallRateThreshold = slowCallRateThreshold;
+    }
+
+    public Duration getSlowCallDuration() {
+      return slowCallDuration;
+    }
+
+    public void setSlowCallDuration(Duration slowCallDuration) {
+      this.slowCallDuration = slowCallDuration;
+    }
+
+    public Duration getOpenDuration() {
+      return openDuration;
+    }
+
+    public void setOpenDuration(Duration openDuration) {
+      this.openDuration = openDuration;
+    }
+
+    public int getHalfOpenCalls() {
+      return halfOpenCalls;
+    }
+
+    public void setHalfOpenCalls(int halfOpenCalls) {
+      this.halfOpenCalls = halfOpenCalls;
+    }
+
+    public int getSpoolCapacity() {
+      return spoolCapacity;
+    }
+
+    public void setSpoolCapacity(int spoolCapacity) {
+      this.spoolCapacity = spoolCapacity;
+    }
+  }
+
+  public static class Retry {
+    // Including the first attempt; 1 disables retries.
+    private int maxAttempts = 4;
+    private Duration initialBackoff = Duration.ofMillis(200);
+    private Duration maxBackoff = Duration.ofSeconds(5);
+    private double backoffMultiplier = 2.0;
+    private Duration attemptTimeout = Duration.ofSeconds(10);
+    private Duration totalTimeout = Duration.ofSeconds(30);
+    private List<StatusCode.Code> retryableCodes =
+        new ArrayList<>(
+            List.of(
+                StatusCode.Code.UNAVAILABLE,
+                StatusCode.Code.DEADLINE_EXCEEDED,
+                StatusCode.Code.RESOURCE_EXHAUSTED));
+    // Each call earns this fraction of a retry, up to budgetBurst saved retries.
+    private double budgetRatio = 0.1;
+    private int budgetBurst = 20;
+
+    public int getMaxAttempts() {
+      return maxAttempts;
+    }
+
+    public void setMaxAttempts(int maxAttempts) {
+      this.maxAttempts = maxAttempts;
+    }
+
+    public Duration getInitialBackoff() {
+      return initialBackoff;
+    }
+
+    public void setInitialBackoff(Duration initialBackoff) {
+      this.initialBackoff = initialBackoff;
+    }
+
+    public Duration getMaxBackoff() {
+      return maxBackoff;
+    }
+
+    public void setMaxBackoff(Duration maxBackoff) {
+      this.maxBackoff = maxBackoff;
+    }
+
+    public double getBackoffMultiplier() {
+      return backoffMultiplier;
+    }
+
+    public void setBackoffMultiplier(double backoffMultiplier) {
+      this.backoffMultiplier = backoffMultiplier;
+    }
+
+    public Duration getAttemptTimeout() {
+      return attemptTimeout;
+    }
+
+    public void setAttemptTimeout(Duration attemptTimeout) {
+      this.attemptTimeout = attemptTimeout;
+    }
+
+    public Duration getTotalTimeout() {
+      return totalTimeout;
+    }
+
+    public void setTotalTimeout(Duration totalTimeout) {
+      this.totalTimeout = totalTimeout;
+    }
+
+    public List<StatusCode.Code> getRetryableCodes() {
+      return retryableCodes;
+    }
+
+    public void setRetryableCodes(List<StatusCode.Code> retryableCodes) {
+      this.retryableCodes = retryableCodes;
+    }
+
+    public double getBudgetRatio() {
+      return budgetRatio;
+    }
+
+    public void setBudgetRatio(double budgetRatio) {
+      this.budgetRatio = budgetRatio;
+    }
+
+    public int getBudgetBurst() {
+      return budgetBurst;
+    }
+
+    public void setBudgetBurst(int budgetBurst) {
+      this.budgetBurst = budgetBurst;
+    }
+  }
+
+  public static class RateLimit {
+    private boolean enabled = false;
+    // Chat API allows 60 writes per minute in a space and 3000 per minute per project.
+    private double spaceRate = 1.0;
+    private int spaceBurst = 5;
+    private double globalRate = 50.0;
+    private int globalBurst = 50;
+    private int maxSpaces = 10000;
+    // Longer waits fail the call; keep well below the push acknowledgement deadline.
+    private Duration maxWait = Duration.ofSeconds(2);
+
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+    }
+
+    public double getSpaceRate() {
+      return spaceRate;
+    }
+
+    public void setSpaceRate(double spaceRate) {
+      this.spaceRate = spaceRate;
+    }
+
+    public int getSpaceBurst() {
+      return spaceBurst;
+    }
+
+    public void setSpaceBurst(int spaceBurst) {
+      this.spaceBurst = spaceBurst;
+    }
+
+    public double getGlobalRate() {
+      return globalRate;
+    }
+
+    public void setGlobalRate(double globalRate) {
+      this.globalRate = globalRate;
+    }
+
+    public int getGlobalBurst() {
+      return globalBurst;
+    }
+
+    public void setGlobalBurst(int globalBurst) {
+      this.globalBurst = globalBurst;
+    }
+
+    public int getMaxSpaces() {
+      return maxSpaces;
+    }
+
+    public void setMaxSpaces(int maxSpaces) {
+      this.maxSpaces = maxSpaces;
+    }
+
+    public Duration getMaxWait() {
+      return maxWait;
+    }
+
+    public void setMaxWait(Duration maxWait) {
+      this.maxWait = maxWait;
+    }
+  }
+
+  public enum CardIdStrategy {
+    /** Random instance ID plus a counter. */
+    COUNTER,
+    /** 128 bits from {@code ThreadLocalRandom}. */
+    RANDOM,
+    /** {@code UUID.randomUUID()}. */
+    UUID
+  }
+
+  public static class Card {
+    private CardIdStrategy idGenerator = CardIdStrategy.COUNTER;
+
+    public CardIdStrategy getIdGenerator() {
+      return idGenerator;
+    }
+
+    public void setIdGenerator(CardIdStrategy idGenerator) {
+      this.idGenerator = idGenerator;
+    }
+  }
+
+  public static class Tracing {
+    // Also write finished spans to the application log, for use without a collector.
+    private boolean logSpans = false;
+
+    public boolean isLogSpans() {
+      return logSpans;
+    }
+
+    public void setLogSpans(boolean logSpans) {
+      this.logSpans = logSpans;
+    }
+  }
+
+  public static class Logging {
+    // One in N events of a type has its JSON logged at INFO; types not listed only at DEBUG.
+    private Map<ChatEventView.Kind, Integer> payloadSampleRate =
+        new EnumMap<>(ChatEventView.Kind.class);
+
+    public Map<ChatEventView.Kind, Integer> getPayloadSampleRate() {
+      return payloadSampleRate;
+    }
+
+    public void setPayloadSampleRate(Map<ChatEventView.Kind, Integer> payloadSampleRate) {
+      this.payloadSampleRate = payloadSampleRate;
+    }
+  }
+}
@@ -0,0 +1,138 @@
+package com.google.chat.bot.action;
+
+import com.google.api.core.ApiFuture;
+import com.google.chat.bot.card.CardActions;
+import com.google.chat.bot.event.ChatEventView;
+import com.google.chat.v1.Message;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Dispatches card clicks to the {@link OnCardAction} methods of the application's beans. The
+ * methods are collected into one map per parameter once all singletons exist, so a click costs at
+ * most two hash lookups. Clicks that neither a handler nor the caller's fallback answers are
+ * reported through {@link #recordUnknown} and counted as {@code bot.card.action.unknown}.
+ */
+@Component
+public class CardActionRouter implements SmartInitializingSingleton {
+
+  private static final Logger logger = LoggerFactory.getLogger(CardActionRouter.class);
+
+  private final ApplicationContext context;
+  private final Map<String, Handler> byType = new HashMap<>();
+  private final Map<String, Handler> byKey = new HashMap<>();
+  private final Counter unknown;
+
+  public CardActionRouter(ApplicationContext context, MeterRegistry meterRegistry) {
+    this.context = context;
+    this.unknown =
+        Counter.builder("bot.card.action.unknown")
+            .description("Card clicks without a handler for their action type or key")
+            .register(meterRegistry);
+  }
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    for (String beanName : context.getBeanNamesForType(Object.class, false, false)) {
+      Class<?> beanType = context.getType(beanName, false);
+      if (beanType == null) {
+        continue;
+      }
+      Map<Method, OnCardAction> methods =
+          MethodIntrospector.selectMethods(
+              AopUtils.isAopProxy(beanType) ? AopUtils.getTargetClass(beanType) : beanType,
+              (MethodIntrospector.MetadataLookup<OnCardAction>)
+                  method -> AnnotatedElementUtils.findMergedAnnotation(method, OnCardAction.class));
+      methods.forEach((method, action) -> register(context.getBean(beanName), method, action));
+    }
+  }
+
+  /**
+   * Runs the handler of the clicked action. Returns {@code null} if there is none, leaving the
+   * answer to the caller.
+   */
+  public ApiFuture<Message> route(ChatEventView click) {
+    Handler handler = null;
+    String type = click.parameter(CardActions.PARAM_ACTION_TYPE);
+    if (type != null) {
+      handler = byType.get(type);
+    }
+    if (handler == null) {
+      String key = click.parameter(CardActions.PARAM_ACTION_KEY);
+      if (key != null) {
+        handler = byKey.get(key);
+      }
+    }
+    if (handler == null) {
+      return null;
+    }
+    return handler.invoke(click);
+  }
+
+  /** Counts a click that no handler and no fallback of the caller could answer. */
+  public void recordUnknown() {
+    unknown.increment();
+  }
+
+  private void register(Object bean, Method method, OnCardAction action) {
+    boolean hasType = !action.type().isEmpty();
+    if (hasType == !action.key().isEmpty()) {
+      throw new IllegalStateException(
+          "@OnCardAction on " + method + " must set exactly one of type and key");
+    }
+    if (method.getParameterCount() != 1
+        || !method.getParameterTypes()[0].isAssignableFrom(ChatEventView.class)
+        || !ApiFuture.class.isAssignableFrom(method.getReturnType())) {
+      throw new IllegalStateException(
+          "@OnCardAction method " + method + " must take a ChatEventView and return an ApiFuture");
+    }
+    method.setAccessible(true);
+    Map<String, Handler> routes = hasType ? byType : byKey;
+    String value = hasType ? action.type() : action.key();
+    Handler previous = routes.putIfAbsent(value, new Handler(bean, method));
+    if (previous != null) {
+      throw new IllegalStateException(
+          "Card action "
+              + value
+              + " is handled by both "
+              + previous.method()
+              + " and "
+              + method);
+    }
+    logger.info(
+        "Registered card action {} {} -> {}.{}",
+        hasType ? "type" : "key",
+        value,
+        method.getDeclaringClass().getSimpleName(),
+        method.getName());
+  }
+
+  private record Handler(Object bean, Method method) {
+
+    @SuppressWarnings("unchecked")
+    ApiFuture<Message> invoke(ChatEventView click) {
+      try {
+        return (ApiFuture<Message>) method.invoke(bean, click);
+      } catch (InvocationTargetException e) {
+        if (e.getCause() instanceof RuntimeException runtime) {
+          throw runtime;
+        }
+        throw new IllegalStateException("Card action handler " + method + " failed", e.getCause());
+      } catch (IllegalAccessException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package com.google.chat.bot.action;
+
+import com.google.api.core.ApiFuture;
+import com.google.chat.bot.card.CardActions;
+import com.google.chat.bot.event.ChatEventView;
+import com.google.chat.bot.outbound.ChatMessenger;
+import com.google.chat.v1.Message;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/** Handlers for the buttons of the cards the bot sends. */
+@Component
+public class CardClickHandlers {
+
+  private static final Logger logger = LoggerFactory.getLogger(CardClickHandlers.class);
+
+  private final ChatMessenger messenger;
+
+  public CardClickHandlers(ChatMessenger messenger) {
+    this.messenger = messenger;
+  }
+
+  /** Reply used for clicks that only identify the bot's card action function. */
+  public ApiFuture<Message> genericClick(ChatEventView view) {
+    String displayAction =
+        view.actionMethodName() != null ? view.actionMethodName() : "Generic Click";
+    return messenger.reply(
+        view.spaceName(), null, "Button clicked! (Action: " + displayAction + ")");
+  }
+
+  @OnCardAction(key = CardActions.KEY_GENERIC_CLICK)
+  public ApiFuture<Message> onGenericClick(ChatEventView view) {
+    return genericClick(view);
+  }
+
+  @OnCardAction(type = CardActions.TYPE_UPDATE_MESSAGE)
+  public ApiFuture<Message> onUpdateMessage(ChatEventView view) {
+    String messageName = view.messageName();
+    if (messageName != null) {
+      return messenger.updateMessage(messageName, "The message has been updated successfully!");
+    }
+    logger.error("Could not find message name to update.");
+    return messenger.reply(view.spaceName(), null, "Error: Could not find message to update.");
+  }
+
+  @OnCardAction(key = CardActions.KEY_STATIC_SUGGESTIONS_SUBMIT)
+  public ApiFuture<Message> onStaticSuggestionsSubmit(ChatEventView view) {
+    logger.debug("Handling static suggestions submit.");
+    String selectedOptions = joinOrNone(view.formValues().strings("static_selection_input"));
+    return messenger.reply(view.spaceName(), null, "You selected: " + selectedOptions);
+  }
+
+  @OnCardAction(key = CardActions.KEY_PLATFORM_SUGGESTIONS_SUBMIT)
+  public ApiFuture<Message> onPlatformSuggestionsSubmit(ChatEventView view) {
+    logger.debug("Handling platform suggestions submit.");
+    String selectedUsers = joinOrNone(view.formValues().strings("platform_selection_input"));
+    return messenger.reply(view.spaceName(), null, "You selected users: " + selectedUsers);
+  }
+
+  @OnCardAction(key = CardActions.KEY_ACCESSORY_WIDGET_CLICK)
+  public ApiFuture<Message> onAccessoryWidgetClick(ChatEventView view) {
+    return messenger.reply(view.spaceName(), null, "Accessory widget button clicked!");
+  }
+
+  private static String joinOrNone(List<String> values) {
+    return values.isEmpty() ? "None" : String.join(", ", values);
+  }
+}
@@ -0,0 +1,25 @@
+package com.google.chat.bot.action;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a bean method as the handler of a card click. The method takes the {@code
+ * ChatEventView} of the click and returns an {@code ApiFuture<Message>}. Exactly one of {@link
+ * #type} and {@link #key} is set; they match the {@code action_type} and {@code action_key}
+ * parameters of the clicked button, and a type match takes precedence.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface OnCardAction {
+
+  /** Value of the {@code action_type} parameter. */
+  String type() default "";
+
+  /** Value of the {@code action_key} parameter. */
+  String key() default "";
+}
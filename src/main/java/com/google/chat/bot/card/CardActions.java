@@ -0,0 +1,19 @@
+package com.google.chat.bot.card;
+
+/** Function and parameters the bot's cards attach to their buttons, and the values it routes on. */
+public final class CardActions {
+
+  /** Function every button invokes; the add-on routes it to this bot's Pub/Sub topic. */
+  public static final String FUNCTION = "projects/pubsubchaddontestapp/topics/testpubsubtopic";
+
+  public static final String PARAM_ACTION_KEY = "action_key";
+  public static final String PARAM_ACTION_TYPE = "action_type";
+
+  public static final String TYPE_UPDATE_MESSAGE = "update_message";
+  public static final String KEY_STATIC_SUGGESTIONS_SUBMIT = "static_suggestions_submit";
+  public static final String KEY_PLATFORM_SUGGESTIONS_SUBMIT = "platform_suggestions_submit";
+  public static final String KEY_ACCESSORY_WIDGET_CLICK = "accessory_widget_click";
+  public static final String KEY_GENERIC_CLICK = "action_value";
+
+  private CardActions() {}
+}
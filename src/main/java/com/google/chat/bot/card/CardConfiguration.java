@@ -0,0 +1,21 @@
+package com.google.chat.bot.card;
+
+import com.google.chat.bot.BotProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/** Selects the {@link CardIdGenerator} unless the application provides its own. */
+@Configuration(proxyBeanMethods = false)
+public class CardConfiguration {
+
+  @Bean
+  @ConditionalOnMissingBean
+  public CardIdGenerator cardIdGenerator(BotProperties properties) {
+    return switch (properties.getCard().getIdGenerator()) {
+      case COUNTER -> CardIdGenerators.counter();
+      case RANDOM -> CardIdGenerators.random();
+      case UUID -> CardIdGenerators.uuid();
+    };
+  }
+}
@@ -0,0 +1,14 @@
+package com.google.chat.bot.card;
+
+/**
+ * Produces the IDs of outgoing cards. IDs only have to be unique among the cards of a message, but
+ * are kept unique across instances and restarts so they can be correlated in logs. Register a bean
+ * of this type to replace the one selected by {@code bot.card.id-generator}; {@link
+ * CardIdGenerators} has the built-in ones.
+ */
+@FunctionalInterface
+public interface CardIdGenerator {
+
+  /** A new ID starting with {@code prefix}. */
+  String next(String prefix);
+}
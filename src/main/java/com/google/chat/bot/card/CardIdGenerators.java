@@ -0,0 +1,51 @@
+package com.google.chat.bot.card;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** The built-in {@link CardIdGenerator}s. */
+public final class CardIdGenerators {
+
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  private CardIdGenerators() {}
+
+  /**
+   * A random instance ID drawn once, followed by a per-instance counter. Two instances only clash
+   * if they draw the same 64-bit instance ID.
+   */
+  public static CardIdGenerator counter() {
+    String instanceId = hex(new SecureRandom().nextLong()) + "-";
+    AtomicLong sequence = new AtomicLong();
+    return prefix -> prefix + instanceId + Long.toHexString(sequence.incrementAndGet());
+  }
+
+  /** 128 random bits from {@link ThreadLocalRandom}; not for IDs that must be unguessable. */
+  public static CardIdGenerator random() {
+    return prefix -> {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      return prefix + hex(random.nextLong(), random.nextLong());
+    };
+  }
+
+  /** {@link UUID#randomUUID()}, as before; draws from {@link SecureRandom} on every call. */
+  public static CardIdGenerator uuid() {
+    return prefix -> prefix + UUID.randomUUID();
+  }
+
+  /** Zero-padded, so that IDs have a fixed length. */
+  private static String hex(long... values) {
+    char[] digits = new char[values.length * 16];
+    int end = digits.length;
+    for (int v = values.length - 1; v >= 0; v--) {
+      long value = values[v];
+      for (int i = 0; i < 16; i++) {
+        digits[--end] = HEX_DIGITS[(int) (value & 0xF)];
+        value >>>= 4;
+      }
+    }
+    return new String(digits);
+  }
+}
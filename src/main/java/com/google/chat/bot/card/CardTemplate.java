@@ -0,0 +1,148 @@
+package com.google.chat.bot.card;
+
+import com.google.apps.card.v1.Action;
+import com.google.apps.card.v1.Button;
+import com.google.apps.card.v1.ButtonList;
+import com.google.apps.card.v1.Card;
+import com.google.apps.card.v1.Card.CardHeader;
+import com.google.apps.card.v1.Card.Section;
+import com.google.apps.card.v1.DecoratedText;
+import com.google.apps.card.v1.OnClick;
+import com.google.apps.card.v1.SelectionInput;
+import com.google.apps.card.v1.Widget;
+import com.google.chat.v1.CardWithId;
+import com.google.chat.v1.Message;
+import com.google.chat.v1.Thread;
+
+/**
+ * The cards the bot sends. Each {@link Card} is built once when the class is loaded; protobuf
+ * messages are immutable, so every outgoing message shares it and only the card ID and thread are
+ * set per message.
+ */
+public enum CardTemplate {
+  INTERACTIVE(
+      "interactive-card-",
+      buttonCard(
+          "Chaddon Interactive Card",
+          button("Click Me", CardActions.PARAM_ACTION_KEY, CardActions.KEY_GENERIC_CLICK))),
+  UPDATE_MESSAGE(
+      "update-card-",
+      buttonCard(
+          "Update Message Card",
+          button(
+              "Click to Update",
+              CardActions.PARAM_ACTION_TYPE,
+              CardActions.TYPE_UPDATE_MESSAGE))),
+  STATIC_SUGGESTIONS(
+      "static-suggestions-card-",
+      formCard(
+          "Static Suggestions Card",
+          SelectionInput.newBuilder()
+              .setName("static_selection_input")
+              .setLabel("Static Suggestions Input")
+              .setType(SelectionInput.SelectionType.MULTI_SELECT)
+              .addItems(item("Option 1", "option_1"))
+              .addItems(item("Option 2", "option_2"))
+              .addItems(item("Option 3", "option_3"))
+              .build(),
+          CardActions.KEY_STATIC_SUGGESTIONS_SUBMIT)),
+  PLATFORM_SUGGESTIONS(
+      "platform-suggestions-card-",
+      formCard(
+          "Platform Suggestions Card",
+          SelectionInput.newBuilder()
+              .setName("platform_selection_input")
+              .setLabel("Platform Suggestions (Users)")
+              .setType(SelectionInput.SelectionType.MULTI_SELECT)
+              .setMultiSelectMaxSelectedItems(3)
+              .setPlatformDataSource(
+                  SelectionInput.PlatformDataSource.newBuilder()
+                      .setCommonDataSource(SelectionInput.PlatformDataSource.CommonDataSource.USER))
+              .build(),
+          CardActions.KEY_PLATFORM_SUGGESTIONS_SUBMIT)),
+  ACCESSORY_WIDGET(
+      "accessory-widget-card-",
+      Card.newBuilder()
+          .setHeader(CardHeader.newBuilder().setTitle("Accessory Widget Card"))
+          .addSections(
+              Section.newBuilder()
+                  .addWidgets(
+                      Widget.newBuilder()
+                          .setDecoratedText(
+                              DecoratedText.newBuilder()
+                                  .setText(
+                                      "This is a DecoratedText widget with an accessory button.")
+                                  .setButton(
+                                      button(
+                                          "Accessory Button",
+                                          CardActions.PARAM_ACTION_KEY,
+                                          CardActions.KEY_ACCESSORY_WIDGET_CLICK)))))
+          .build());
+
+  private final String cardIdPrefix;
+  private final Card card;
+
+  CardTemplate(String cardIdPrefix, Card card) {
+    this.cardIdPrefix = cardIdPrefix;
+    this.card = card;
+  }
+
+  public String cardIdPrefix() {
+    return cardIdPrefix;
+  }
+
+  public Card card() {
+    return card;
+  }
+
+  /** A message carrying this card under {@code cardId}, posted in {@code threadName} if set. */
+  public Message toMessage(String cardId, String threadName) {
+    Message.Builder message =
+        Message.newBuilder().addCardsV2(CardWithId.newBuilder().setCardId(cardId).setCard(card));
+    if (threadName != null && !threadName.isEmpty()) {
+      message.setThread(Thread.newBuilder().setName(threadName));
+    }
+    return message.build();
+  }
+
+  private static Button button(String text, String parameter, String value) {
+    return Button.newBuilder()
+        .setText(text)
+        .setOnClick(
+            OnClick.newBuilder()
+                .setAction(
+                    Action.newBuilder()
+                        .setFunction(CardActions.FUNCTION)
+                        .addParameters(
+                            Action.ActionParameter.newBuilder()
+                                .setKey(parameter)
+                                .setValue(value))))
+        .build();
+  }
+
+  private static Card buttonCard(String title, Button button) {
+    return Card.newBuilder()
+        .setHeader(CardHeader.newBuilder().setTitle(title))
+        .addSections(
+            Section.newBuilder()
+                .addWidgets(
+                    Widget.newBuilder().setButtonList(ButtonList.newBuilder().addButtons(button))))
+        .build();
+  }
+
+  private static Card formCard(String title, SelectionInput input, String submitKey) {
+    Button submit = button("Submit", CardActions.PARAM_ACTION_KEY, submitKey);
+    return Card.newBuilder()
+        .setHeader(CardHeader.newBuilder().setTitle(title))
+        .addSections(
+            Section.newBuilder()
+                .addWidgets(Widget.newBuilder().setSelectionInput(input))
+                .addWidgets(
+                    Widget.newBuilder().setButtonList(ButtonList.newBuilder().addButtons(submit))))
+        .build();
+  }
+
+  private static SelectionInput.SelectionItem item(String text, String value) {
+    return SelectionInput.SelectionItem.newBuilder().setText(text).setValue(value).build();
+  }
+}
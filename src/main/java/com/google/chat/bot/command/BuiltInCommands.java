@@ -0,0 +1,70 @@
+package com.google.chat.bot.command;
+
+import com.google.chat.bot.card.CardTemplate;
+import com.google.chat.bot.outbound.ChatMessenger;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/** The slash commands configured for the app in the Chat API console. */
+@Configuration(proxyBeanMethods = false)
+public class BuiltInCommands {
+
+  public static final long CMD_PUBSUBTEST = 1;
+  public static final long CMD_CREATE_CARD = 2;
+  public static final long CMD_UPDATE_MESSAGE_CARD = 3;
+  public static final long CMD_STATIC_SUGGESTIONS = 4;
+  public static final long CMD_PLATFORM_SUGGESTIONS = 5;
+  public static final long CMD_ACCESSORY_WIDGET = 6;
+
+  @Bean
+  SlashCommand pubSubTestCommand(ChatMessenger messenger) {
+    return new ReplyCommand(
+        CMD_PUBSUBTEST, "pubsubtest", "Chaddon slash command /pubsubtest invoked!", messenger);
+  }
+
+  @Bean
+  SlashCommand createCardCommand(ChatMessenger messenger) {
+    return new CardCommand(
+        CMD_CREATE_CARD, "create_card", CardTemplate.INTERACTIVE, "card with button", messenger);
+  }
+
+  @Bean
+  SlashCommand updateMessageCardCommand(ChatMessenger messenger) {
+    return new CardCommand(
+        CMD_UPDATE_MESSAGE_CARD,
+        "update_message_card",
+        CardTemplate.UPDATE_MESSAGE,
+        "update card",
+        messenger);
+  }
+
+  @Bean
+  SlashCommand staticSuggestionsCommand(ChatMessenger messenger) {
+    return new CardCommand(
+        CMD_STATIC_SUGGESTIONS,
+        "static_suggestions",
+        CardTemplate.STATIC_SUGGESTIONS,
+        "static suggestions card",
+        messenger);
+  }
+
+  @Bean
+  SlashCommand platformSuggestionsCommand(ChatMessenger messenger) {
+    return new CardCommand(
+        CMD_PLATFORM_SUGGESTIONS,
+        "platform_suggestions",
+        CardTemplate.PLATFORM_SUGGESTIONS,
+        "platform suggestions card",
+        messenger);
+  }
+
+  @Bean
+  SlashCommand accessoryWidgetCommand(ChatMessenger messenger) {
+    return new CardCommand(
+        CMD_ACCESSORY_WIDGET,
+        "accessory_widget",
+        CardTemplate.ACCESSORY_WIDGET,
+        "accessory widget card",
+        messenger);
+  }
+}
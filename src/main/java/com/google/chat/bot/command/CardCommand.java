@@ -0,0 +1,41 @@
+package com.google.chat.bot.command;
+
+import com.google.api.core.ApiFuture;
+import com.google.chat.bot.card.CardTemplate;
+import com.google.chat.bot.event.ChatEventView;
+import com.google.chat.bot.outbound.ChatMessenger;
+import com.google.chat.v1.Message;
+
+/** Answers with a card in the thread of the command. */
+public class CardCommand implements SlashCommand {
+
+  private final long id;
+  private final String name;
+  private final CardTemplate template;
+  private final String description;
+  private final ChatMessenger messenger;
+
+  public CardCommand(
+      long id, String name, CardTemplate template, String description, ChatMessenger messenger) {
+    this.id = id;
+    this.name = name;
+    this.template = template;
+    this.description = description;
+    this.messenger = messenger;
+  }
+
+  @Override
+  public long id() {
+    return id;
+  }
+
+  @Override
+  public String name() {
+    return name;
+  }
+
+  @Override
+  public ApiFuture<Message> handle(ChatEventView event) {
+    return messenger.sendCard(template, description, event.spaceName(), event.threadName());
+  }
+}
@@ -0,0 +1,163 @@
+package com.google.chat.bot.command;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.chat.bot.event.ChatEventView;
+import com.google.chat.v1.Message;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Dispatches slash commands to the {@link SlashCommand} beans by command ID. IDs below {@value
+ * #DENSE_IDS} index an array directly; any others go to an open-addressing table keyed by the
+ * primitive ID, so a lookup never boxes or scans.
+ *
+ * <p>Each command is timed from invocation until its reply completes, as {@code bot.command}
+ * tagged with the command name and outcome; its count is the number of invocations. Unknown IDs
+ * are counted as {@code bot.command.unknown}.
+ */
+@Component
+public class CommandRegistry {
+
+  private static final Logger logger = LoggerFactory.getLogger(CommandRegistry.class);
+
+  private static final int DENSE_IDS = 64;
+
+  private final Registration[] dense = new Registration[DENSE_IDS];
+  // Sparse IDs never fall in [0, DENSE_IDS), so 0 can mark empty slots.
+  private final long[] sparseIds;
+  private final Registration[] sparse;
+  private final int sparseMask;
+  private final Counter unknown;
+
+  public CommandRegistry(List<SlashCommand> commands, MeterRegistry meterRegistry) {
+    int sparseCount = 0;
+    for (SlashCommand command : commands) {
+      if (!isDense(command.id())) {
+        sparseCount++;
+      }
+    }
+    int slots = Integer.highestOneBit(Math.max(1, sparseCount * 2 - 1)) << 1;
+    this.sparseIds = new long[slots];
+    this.sparse = new Registration[slots];
+    this.sparseMask = slots - 1;
+
+    for (SlashCommand command : commands) {
+      Registration registration = new Registration(command, meterRegistry);
+      Registration existing = find(command.id());
+      if (existing != null) {
+        throw new IllegalStateException(
+            "Slash commands "
+                + existing.command.name()
+                + " and "
+                + command.name()
+                + " share command ID "
+                + command.id());
+      }
+      if (isDense(command.id())) {
+        dense[(int) command.id()] = registration;
+      } else {
+        int slot = slotOf(command.id());
+        while (sparse[slot] != null) {
+          slot = (slot + 1) & sparseMask;
+        }
+        sparseIds[slot] = command.id();
+        sparse[slot] = registration;
+      }
+      logger.info("Registered slash command {} with ID {}", command.name(), command.id());
+    }
+    this.unknown =
+        Counter.builder("bot.command.unknown")
+            .description("Slash command invocations with an unregistered command ID")
+            .register(meterRegistry);
+  }
+
+  /**
+   * Runs the command the event invokes. Returns {@code null} if no command has its ID, leaving
+   * the answer to the caller.
+   */
+  public ApiFuture<Message> dispatch(ChatEventView event) {
+    Registration registration = find(event.commandId());
+    if (registration == null) {
+      unknown.increment();
+      return null;
+    }
+    logger.debug("Matched slash command {}", registration.command.name());
+    return registration.invoke(event);
+  }
+
+  private Registration find(long id) {
+    if (isDense(id)) {
+      return dense[(int) id];
+    }
+    for (int slot = slotOf(id); sparse[slot] != null; slot = (slot + 1) & sparseMask) {
+      if (sparseIds[slot] == id) {
+        return sparse[slot];
+      }
+    }
+    return null;
+  }
+
+  private int slotOf(long id) {
+    long mixed = id * 0x9E3779B97F4A7C15L;
+    return (int) (mixed ^ (mixed >>> 32)) & sparseMask;
+  }
+
+  private static boolean isDense(long id) {
+    return id >= 0 && id < DENSE_IDS;
+  }
+
+  private static final class Registration {
+    final SlashCommand command;
+    final Timer succeeded;
+    final Timer failed;
+
+    Registration(SlashCommand command, MeterRegistry meterRegistry) {
+      this.command = command;
+      this.succeeded = timer(meterRegistry, command, "success");
+      this.failed = timer(meterRegistry, command, "failure");
+    }
+
+    ApiFuture<Message> invoke(ChatEventView event) {
+      long start = System.nanoTime();
+      ApiFuture<Message> result;
+      try {
+        result = command.handle(event);
+      } catch (RuntimeException e) {
+        failed.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        throw e;
+      }
+      ApiFutures.addCallback(
+          result,
+          new ApiFutureCallback<Message>() {
+            @Override
+            public void onSuccess(Message message) {
+              succeeded.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+              failed.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+          },
+          MoreExecutors.directExecutor());
+      return result;
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, SlashCommand command, String outcome) {
+      return Timer.builder("bot.command")
+          .description("Slash command handling, until the reply was posted")
+          .tag("command", command.name())
+          .tag("outcome", outcome)
+          .register(meterRegistry);
+    }
+  }
+}
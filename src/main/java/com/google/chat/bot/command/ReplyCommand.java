@@ -0,0 +1,37 @@
+package com.google.chat.bot.command;
+
+import com.google.api.core.ApiFuture;
+import com.google.chat.bot.event.ChatEventView;
+import com.google.chat.bot.outbound.ChatMessenger;
+import com.google.chat.v1.Message;
+
+/** Answers with a fixed text in the thread of the command. */
+public class ReplyCommand implements SlashCommand {
+
+  private final long id;
+  private final String name;
+  private final String text;
+  private final ChatMessenger messenger;
+
+  public ReplyCommand(long id, String name, String text, ChatMessenger messenger) {
+    this.id = id;
+    this.name = name;
+    this.text = text;
+    this.messenger = messenger;
+  }
+
+  @Override
+  public long id() {
+    return id;
+  }
+
+  @Override
+  public String name() {
+    return name;
+  }
+
+  @Override
+  public ApiFuture<Message> handle(ChatEventView event) {
+    return messenger.reply(event.spaceName(), event.threadName(), text);
+  }
+}
@@ -0,0 +1,20 @@
+package com.google.chat.bot.command;
+
+import com.google.api.core.ApiFuture;
+import com.google.chat.bot.event.ChatEventView;
+import com.google.chat.v1.Message;
+
+/**
+ * A slash command of the Chat app. Every bean of this type is registered with the {@link
+ * CommandRegistry} under its {@link #id()}, the command ID configured in the Chat API console.
+ */
+public interface SlashCommand {
+
+  long id();
+
+  /** Used in logs and as the {@code command} tag of the command metrics. */
+  String name();
+
+  /** Handles an invocation; the event always has a space. */
+  ApiFuture<Message> handle(ChatEventView event);
+}
@@ -0,0 +1,115 @@
+package com.google.chat.bot.dedup;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.chat.bot.BotProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers recently processed Pub/Sub messageIds so that redeliveries are acknowledged without
+ * posting the same replies again. The cache is bounded by size and age; hit and miss counts are
+ * published as the {@code cache.gets} metric tagged {@code cache=pubsub.dedup}.
+ *
+ * <p>With the journal enabled, accepted IDs are also written to a {@link MessageIdJournal}, which
+ * is consulted on a cache miss so that deliveries processed before a restart are still caught.
+ */
+@Component
+public class DeliveryDeduplicator {
+
+  private static final Logger logger = LoggerFactory.getLogger(DeliveryDeduplicator.class);
+
+  private final boolean enabled;
+  private final Cache<String, Boolean> seen;
+  private final MessageIdJournal journal;
+
+  public DeliveryDeduplicator(BotProperties properties, MeterRegistry meterRegistry) {
+    BotProperties.Dedup settings = properties.getDedup();
+    this.enabled = settings.isEnabled();
+    this.seen =
+        Caffeine.newBuilder()
+            .maximumSize(settings.getMaxSize())
+            .expireAfterWrite(settings.getTtl())
+            .recordStats()
+            .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, seen, "pubsub.dedup");
+    this.journal = enabled ? openJournal(settings.getJournal()) : null;
+    if (journal != null) {
+      Gauge.builder("pubsub.dedup.journal.entries", journal, MessageIdJournal::size)
+          .register(meterRegistry);
+    }
+  }
+
+  private static MessageIdJournal openJournal(BotProperties.Journal settings) {
+    if (!settings.isEnabled()) {
+      return null;
+    }
+    try {
+      return new MessageIdJournal(
+          Path.of(settings.getDirectory()),
+          settings.getEntriesPerSegment(),
+          settings.getMaxSegments());
+    } catch (IOException | RuntimeException e) {
+      logger.error(
+          "Could not open dedup journal in {}, continuing without it",
+          settings.getDirectory(),
+          e);
+      return null;
+    }
+  }
+
+  @PreDestroy
+  public void close() {
+    if (journal != null) {
+      journal.close();
+    }
+  }
+
+  /**
+   * Records {@code messageId} and returns whether it had already been seen. Deliveries without a
+   * messageId are never treated as duplicates.
+   */
+  public boolean isDuplicate(String messageId) {
+    if (!enabled || messageId == null) {
+      return false;
+    }
+    boolean[] firstDelivery = new boolean[1];
+    // get() is atomic per key and, unlike asMap().putIfAbsent(), records hit/miss statistics.
+    seen.get(
+        messageId,
+        id -> {
+          firstDelivery[0] = true;
+          return Boolean.TRUE;
+        });
+    if (!firstDelivery[0]) {
+      return true;
+    }
+    return journal != null && journal.contains(messageId);
+  }
+
+  /** Persists a delivery that is going to be processed, when the journal is enabled. */
+  public void recordAccepted(String messageId) {
+    if (journal == null || messageId == null) {
+      return;
+    }
+    try {
+      journal.append(messageId);
+    } catch (IOException | RuntimeException e) {
+      logger.warn("Could not journal messageId {}", messageId, e);
+    }
+  }
+
+  /** Forgets a delivery that was not processed, so that its redelivery is handled. */
+  public void forget(String messageId) {
+    if (messageId != null) {
+      seen.invalidate(messageId);
+    }
+  }
+}
@@ -0,0 +1,342 @@
+package com.google.chat.bot.dedup;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only journal of processed Pub/Sub messageIds that survives process restarts within a
+ * container's lifetime.
+ *
+ * <p>Each messageId is stored as a 64-bit fingerprint in fixed-size, memory-mapped segment files.
+ * A record is 16 bytes: the fingerprint followed by a check word derived from it, so a zeroed
+ * slot marks the end of a segment and a torn write is detected on recovery. When the active
+ * segment fills up a new one is created; beyond {@code maxSegments} the oldest file is deleted.
+ *
+ * <p>Lookups go through an open-addressing hash set of fingerprints held off-heap in a direct
+ * buffer. It is sized for at least twice the retained entries and built by scanning the segments on
+ * startup; when a segment is dropped, just its fingerprints are deleted from it.
+ */
+public class MessageIdJournal implements AutoCloseable {
+
+  private static final Logger logger = LoggerFactory.getLogger(MessageIdJournal.class);
+
+  private static final long SEGMENT_MAGIC = 0x5053444544555031L; // "PSDEDUP1"
+  private static final long CHECK_MASK = 0x9E3779B97F4A7C15L;
+  private static final int HEADER_BYTES = 16;
+  private static final int RECORD_BYTES = 16;
+  private static final Pattern SEGMENT_NAME = Pattern.compile("dedup-(\\d{10})\\.seg");
+  private static final HashFunction FINGERPRINT = Hashing.murmur3_128();
+  // A segment must fit one mapping and the index one direct buffer.
+  private static final int MAX_ENTRIES_PER_SEGMENT =
+      (Integer.MAX_VALUE - HEADER_BYTES) / RECORD_BYTES;
+  private static final long MAX_INDEX_SLOTS = 1L << 27;
+
+  private final Path directory;
+  private final int entriesPerSegment;
+  private final int maxSegments;
+  private final Deque<Segment> segments = new ArrayDeque<>();
+  private final LongBuffer index;
+  private final int indexMask;
+  private int indexedEntries;
+
+  public MessageIdJournal(Path directory, int entriesPerSegment, int maxSegments)
+      throws IOException {
+    if (entriesPerSegment <= 0 || maxSegments <= 0) {
+      throw new IllegalArgumentException("entriesPerSegment and maxSegments must be positive");
+    }
+    if (entriesPerSegment > MAX_ENTRIES_PER_SEGMENT) {
+      throw new IllegalArgumentException(
+          "entriesPerSegment must be at most " + MAX_ENTRIES_PER_SEGMENT);
+    }
+    this.directory = directory;
+    this.entriesPerSegment = entriesPerSegment;
+    this.maxSegments = maxSegments;
+    long maxEntries = (long) entriesPerSegment * maxSegments;
+    if (maxEntries * 2 > MAX_INDEX_SLOTS) {
+      // A full index would make lookups probe forever.
+      throw new IllegalArgumentException(
+          "entriesPerSegment * maxSegments must be at most " + MAX_INDEX_SLOTS / 2);
+    }
+    int slots = Integer.highestOneBit((int) (maxEntries * 2) - 1) << 1;
+    this.index = ByteBuffer.allocateDirect(slots * Long.BYTES).asLongBuffer();
+    this.indexMask = slots - 1;
+
+    Files.createDirectories(directory);
+    open();
+  }
+
+  /**
+   * Whether {@code messageId} was appended before, possibly by an earlier process. Collisions are
+   * possible in principle but negligible with 64-bit fingerprints.
+   */
+  public synchronized boolean contains(String messageId) {
+    return indexContains(fingerprint(messageId));
+  }
+
+  /** Appends {@code messageId} unless it is already present. */
+  public synchronized void append(String messageId) throws IOException {
+    long fingerprint = fingerprint(messageId);
+    if (indexContains(fingerprint)) {
+      return;
+    }
+    Segment active = segments.peekLast();
+    if (active.isFull()) {
+      active = rollover();
+    }
+    active.append(fingerprint);
+    indexInsert(fingerprint);
+  }
+
+  public synchronized int size() {
+    return indexedEntries;
+  }
+
+  @Override
+  public synchronized void close() {
+    for (Segment segment : segments) {
+      segment.close();
+    }
+    segments.clear();
+  }
+
+  private void open() throws IOException {
+    List<Path> files = new ArrayList<>();
+    try (Stream<Path> listing = Files.list(directory)) {
+      listing
+          .filter(p -> SEGMENT_NAME.matcher(p.getFileName().toString()).matches())
+          .forEach(files::add);
+    }
+    files.sort(null); // zero-padded sequence numbers sort lexically
+    while (files.size() > maxSegments) {
+      Files.deleteIfExists(files.remove(0));
+    }
+    for (Path file : files) {
+      segments.addLast(Segment.open(file, sequenceOf(file), entriesPerSegment));
+    }
+    if (segments.isEmpty()) {
+      segments.addLast(Segment.create(segmentPath(1), 1, entriesPerSegment));
+    }
+    rebuildIndex();
+  }
+
+  private Segment rollover() throws IOException {
+    Segment previous = segments.peekLast();
+    previous.force();
+    // A crash at any point here leaves either no new file or a zero-filled one, both of which
+    // recover as an empty segment.
+    long sequence = previous.sequence + 1;
+    Segment next = Segment.create(segmentPath(sequence), sequence, entriesPerSegment);
+    segments.addLast(next);
+    if (segments.size() > maxSegments) {
+      Segment oldest = segments.removeFirst();
+      for (int i = 0; i < oldest.count; i++) {
+        indexRemove(oldest.fingerprintAt(i));
+      }
+      oldest.close();
+      Files.deleteIfExists(oldest.path);
+    }
+    return next;
+  }
+
+  private void rebuildIndex() {
+    long start = System.nanoTime();
+    for (int i = 0; i <= indexMask; i++) {
+      index.put(i, 0L);
+    }
+    indexedEntries = 0;
+    for (Segment segment : segments) {
+      for (int i = 0; i < segment.count; i++) {
+        indexInsert(segment.fingerprintAt(i));
+      }
+    }
+    logger.info(
+        "Rebuilt dedup journal index: {} entries from {} segments in {} ms",
+        indexedEntries,
+        segments.size(),
+        (System.nanoTime() - start) / 1_000_000);
+  }
+
+  private boolean indexContains(long fingerprint) {
+    for (int slot = mix(fingerprint) & indexMask; ; slot = (slot + 1) & indexMask) {
+      long value = index.get(slot);
+      if (value == 0L) {
+        return false;
+      }
+      if (value == fingerprint) {
+        return true;
+      }
+    }
+  }
+
+  private void indexInsert(long fingerprint) {
+    for (int slot = mix(fingerprint) & indexMask; ; slot = (slot + 1) & indexMask) {
+      long value = index.get(slot);
+      if (value == 0L) {
+        index.put(slot, fingerprint);
+        indexedEntries++;
+        return;
+      }
+      if (value == fingerprint) {
+        return;
+      }
+    }
+  }
+
+  /** Deletes {@code fingerprint}, shifting the rest of its probe cluster back to leave no gap. */
+  private void indexRemove(long fingerprint) {
+    int gap = mix(fingerprint) & indexMask;
+    for (long value = index.get(gap); value != fingerprint; value = index.get(gap)) {
+      if (value == 0L) {
+        return;
+      }
+      gap = (gap + 1) & indexMask;
+    }
+    for (int slot = (gap + 1) & indexMask; ; slot = (slot + 1) & indexMask) {
+      long value = index.get(slot);
+      if (value == 0L) {
+        break;
+      }
+      // An entry may fill the gap unless its home slot lies between the gap and its own slot.
+      int home = mix(value) & indexMask;
+      if (((slot - home) & indexMask) >= ((slot - gap) & indexMask)) {
+        index.put(gap, value);
+        gap = slot;
+      }
+    }
+    index.put(gap, 0L);
+    indexedEntries--;
+  }
+
+  private static int mix(long fingerprint) {
+    return (int) (fingerprint ^ (fingerprint >>> 32));
+  }
+
+  private static long fingerprint(String messageId) {
+    long fingerprint = FINGERPRINT.hashString(messageId, StandardCharsets.UTF_8).asLong();
+    // Zero marks empty index slots and unwritten records.
+    return fingerprint != 0L ? fingerprint : 1L;
+  }
+
+  private Path segmentPath(long sequence) {
+    return directory.resolve(String.format("dedup-%010d.seg", sequence));
+  }
+
+  private static long sequenceOf(Path file) {
+    Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+    if (!matcher.matches()) {
+      throw new IllegalArgumentException("Not a segment file: " + file);
+    }
+    return Long.parseLong(matcher.group(1));
+  }
+
+  /** One memory-mapped segment file: a header followed by fixed-size records. */
+  private static final class Segment {
+    final Path path;
+    final long sequence;
+    final int capacity;
+    final MappedByteBuffer buffer;
+    int count;
+
+    private Segment(Path path, long sequence, int capacity, MappedByteBuffer buffer) {
+      this.path = path;
+      this.sequence = sequence;
+      this.capacity = capacity;
+      this.buffer = buffer;
+    }
+
+    static Segment create(Path path, long sequence, int capacity) throws IOException {
+      Segment segment = new Segment(path, sequence, capacity, map(path, capacity));
+      segment.writeHeader();
+      return segment;
+    }
+
+    static Segment open(Path path, long sequence, int capacity) throws IOException {
+      Segment segment = new Segment(path, sequence, capacity, map(path, capacity));
+      if (segment.buffer.getLong(0) != SEGMENT_MAGIC) {
+        // Never got its header, e.g. a crash right after the file was created.
+        segment.writeHeader();
+        return segment;
+      }
+      while (segment.count < capacity && segment.isValid(segment.count)) {
+        segment.count++;
+      }
+      if (segment.count < capacity) {
+        // Clear a torn record so the next append starts from a clean slot.
+        int offset = recordOffset(segment.count);
+        segment.buffer.putLong(offset, 0L);
+        segment.buffer.putLong(offset + Long.BYTES, 0L);
+      }
+      return segment;
+    }
+
+    private static MappedByteBuffer map(Path path, int capacity) throws IOException {
+      long length = HEADER_BYTES + (long) capacity * RECORD_BYTES;
+      try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw");
+          FileChannel channel = file.getChannel()) {
+        if (file.length() != length) {
+          // New files are zero-filled; a file from a different configuration is resized.
+          file.setLength(length);
+        }
+        // The mapping stays valid after the channel is closed.
+        return channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+      }
+    }
+
+    private void writeHeader() {
+      buffer.putLong(Long.BYTES, sequence);
+      buffer.putLong(0, SEGMENT_MAGIC);
+      buffer.force();
+    }
+
+    boolean isFull() {
+      return count >= capacity;
+    }
+
+    void append(long fingerprint) {
+      int offset = recordOffset(count);
+      buffer.putLong(offset + Long.BYTES, fingerprint ^ CHECK_MASK);
+      buffer.putLong(offset, fingerprint);
+      count++;
+    }
+
+    long fingerprintAt(int record) {
+      return buffer.getLong(recordOffset(record));
+    }
+
+    private boolean isValid(int record) {
+      int offset = recordOffset(record);
+      long fingerprint = buffer.getLong(offset);
+      return fingerprint != 0L && buffer.getLong(offset + Long.BYTES) == (fingerprint ^ CHECK_MASK);
+    }
+
+    private static int recordOffset(int record) {
+      return HEADER_BYTES + record * RECORD_BYTES;
+    }
+
+    void force() {
+      buffer.force();
+    }
+
+    void close() {
+      buffer.force();
+    }
+  }
+}
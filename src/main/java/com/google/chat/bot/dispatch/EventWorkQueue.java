@@ -0,0 +1,111 @@
+package com.google.chat.bot.dispatch;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded in-process queue of events. {@link #offer} never blocks: when the queue is full the
+ * event is refused so the push endpoint can tell Pub/Sub to back off.
+ *
+ * <p>With platform threads a fixed pool of workers drains an {@link ArrayBlockingQueue}. With
+ * virtual threads every event gets its own thread and the bound is enforced by an admission
+ * semaphore instead, since pooling virtual threads buys nothing.
+ */
+public class EventWorkQueue implements AutoCloseable {
+
+  private static final Logger logger = LoggerFactory.getLogger(EventWorkQueue.class);
+
+  private final ExecutorService executor;
+  // Only set for virtual threads; the platform pool is bounded by its own queue.
+  private final Semaphore admission;
+  private final int capacity;
+
+  private EventWorkQueue(ExecutorService executor, Semaphore admission, int capacity) {
+    this.executor = executor;
+    this.admission = admission;
+    this.capacity = capacity;
+  }
+
+  public static EventWorkQueue platformThreads(String namePrefix, int capacity, int workers) {
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            workers,
+            workers,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(capacity),
+            namedThreads(namePrefix),
+            new ThreadPoolExecutor.AbortPolicy());
+    return new EventWorkQueue(executor, null, capacity);
+  }
+
+  /** Requires Java 21; {@code capacity} bounds queued plus running events. */
+  public static EventWorkQueue virtualThreads(int capacity) {
+    return new EventWorkQueue(
+        VirtualThreads.newPerTaskExecutor("event-vthread-"), new Semaphore(capacity), capacity);
+  }
+
+  /** Returns {@code false} if the queue is full or shutting down. */
+  public boolean offer(Runnable task) {
+    if (admission != null && !admission.tryAcquire()) {
+      return false;
+    }
+    try {
+      executor.execute(
+          () -> {
+            try {
+              task.run();
+            } catch (Exception e) {
+              logger.error("Queued event failed", e);
+            } finally {
+              if (admission != null) {
+                admission.release();
+              }
+            }
+          });
+      return true;
+    } catch (RejectedExecutionException e) {
+      if (admission != null) {
+        admission.release();
+      }
+      return false;
+    }
+  }
+
+  public int depth() {
+    if (admission != null) {
+      return capacity - admission.availablePermits();
+    }
+    return ((ThreadPoolExecutor) executor).getQueue().size();
+  }
+
+  @Override
+  public void close() {
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+        logger.warn("Dropping {} queued events on shutdown", executor.shutdownNow().size());
+      }
+    } catch (InterruptedException e) {
+      executor.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static ThreadFactory namedThreads(String prefix) {
+    AtomicInteger counter = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+}
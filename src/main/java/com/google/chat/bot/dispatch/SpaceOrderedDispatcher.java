@@ -0,0 +1,65 @@
+package com.google.chat.bot.dispatch;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Runs events of the same space one after another while different spaces proceed in parallel.
+ * Each space is hashed onto one of a fixed number of lanes, every lane being a single-worker
+ * {@link EventWorkQueue}, so replies within a space go out in the order the events arrived.
+ *
+ * <p>Spaces sharing a lane also share its ordering, which is harmless but means a slow space can
+ * delay the others on its lane. Events without a space all go to the first lane.
+ */
+public class SpaceOrderedDispatcher implements AutoCloseable {
+
+  private final EventWorkQueue[] lanes;
+
+  /** {@code capacity} is split evenly between the lanes. */
+  public SpaceOrderedDispatcher(int lanes, int capacity) {
+    if (lanes <= 0) {
+      throw new IllegalArgumentException("lanes must be positive");
+    }
+    int laneCapacity = Math.max(1, capacity / lanes);
+    this.lanes = new EventWorkQueue[lanes];
+    for (int i = 0; i < lanes; i++) {
+      this.lanes[i] = EventWorkQueue.platformThreads("event-lane-" + i + "-", laneCapacity, 1);
+    }
+  }
+
+  /** Publishes the depth of every lane as {@code bot.dispatch.lane.depth}, tagged by lane. */
+  public void bindTo(MeterRegistry registry) {
+    for (int i = 0; i < lanes.length; i++) {
+      Gauge.builder("bot.dispatch.lane.depth", lanes[i], EventWorkQueue::depth)
+          .tag("lane", Integer.toString(i))
+          .description("Events waiting on a per-space lane")
+          .register(registry);
+    }
+  }
+
+  /** Returns {@code false} if the lane of {@code spaceName} is full or shutting down. */
+  public boolean offer(String spaceName, Runnable task) {
+    return laneOf(spaceName).offer(task);
+  }
+
+  /** Depth of the lane {@code spaceName} maps to. */
+  public int depth(String spaceName) {
+    return laneOf(spaceName).depth();
+  }
+
+  @Override
+  public void close() {
+    for (EventWorkQueue lane : lanes) {
+      lane.close();
+    }
+  }
+
+  private EventWorkQueue laneOf(String spaceName) {
+    if (spaceName == null) {
+      return lanes[0];
+    }
+    int hash = spaceName.hashCode();
+    // Space names share a long "spaces/" prefix, so fold the high bits in before reducing.
+    return lanes[Math.floorMod(hash ^ (hash >>> 16), lanes.length)];
+  }
+}
@@ -0,0 +1,39 @@
+package com.google.chat.bot.dispatch;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to Java 21 virtual threads from code compiled for Java 17. The default build targets 17,
+ * so the JDK 21 APIs are looked up reflectively; this only happens when executors are created at
+ * startup.
+ */
+public final class VirtualThreads {
+
+  private VirtualThreads() {}
+
+  public static boolean isSupported() {
+    return Runtime.version().feature() >= 21;
+  }
+
+  /** Equivalent of {@code Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(p, 0))}. */
+  public static ExecutorService newPerTaskExecutor(String namePrefix) {
+    if (!isSupported()) {
+      throw new UnsupportedOperationException("Virtual threads require Java 21 or newer");
+    }
+    try {
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      builder =
+          builderClass.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+      ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+      return (ExecutorService)
+          Executors.class
+              .getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+              .invoke(null, factory);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Could not create virtual thread executor", e);
+    }
+  }
+}
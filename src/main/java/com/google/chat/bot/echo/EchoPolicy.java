@@ -0,0 +1,65 @@
+package com.google.chat.bot.echo;
+
+import com.google.chat.bot.BotProperties;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Component;
+
+/** Decides which events get a "Received Event" echo posted back to their space. */
+@Component
+public class EchoPolicy {
+
+  // Spaces seen within the interval; cleared wholesale if it grows past this.
+  private static final int MAX_TRACKED_SPACES = 10_000;
+
+  private final BotProperties.Echo settings;
+  private final AtomicLong seen = new AtomicLong();
+  private final Map<String, Long> lastEchoNanos = new ConcurrentHashMap<>();
+
+  public EchoPolicy(BotProperties properties) {
+    this.settings = properties.getEcho();
+  }
+
+  public boolean isDeferred() {
+    return settings.isDeferred();
+  }
+
+  public int maxChars() {
+    return settings.getMaxChars();
+  }
+
+  public boolean shouldEcho(String spaceName) {
+    switch (settings.getMode()) {
+      case OFF:
+        return false;
+      case ALWAYS:
+        return true;
+      default:
+        break;
+    }
+    int sampleRate = Math.max(1, settings.getSampleRate());
+    if (seen.getAndIncrement() % sampleRate != 0) {
+      return false;
+    }
+    long intervalNanos = settings.getPerSpaceInterval().toNanos();
+    if (intervalNanos <= 0) {
+      return true;
+    }
+    if (lastEchoNanos.size() > MAX_TRACKED_SPACES) {
+      lastEchoNanos.clear();
+    }
+    long now = System.nanoTime();
+    boolean[] allowed = new boolean[1];
+    lastEchoNanos.compute(
+        spaceName,
+        (space, last) -> {
+          if (last == null || now - last >= intervalNanos) {
+            allowed[0] = true;
+            return now;
+          }
+          return last;
+        });
+    return allowed[0];
+  }
+}
@@ -0,0 +1,80 @@
+package com.google.chat.bot.echo;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Pretty-prints a JSON payload for the echo message, stopping once {@code maxChars} have been
+ * produced. Tokens are copied straight from a parser to a generator, so neither a tree nor the
+ * full pretty string is built for large events.
+ */
+public final class EchoRenderer {
+
+  private static final String TRUNCATED = "\n... (truncated)";
+
+  private final JsonFactory jsonFactory;
+
+  public EchoRenderer(JsonFactory jsonFactory) {
+    this.jsonFactory = jsonFactory;
+  }
+
+  public String render(byte[] json, int maxChars) throws IOException {
+    LimitedWriter out = new LimitedWriter(maxChars);
+    try (JsonParser parser = jsonFactory.createParser(json);
+        JsonGenerator generator = jsonFactory.createGenerator(out)) {
+      generator.useDefaultPrettyPrinter();
+      while (parser.nextToken() != null) {
+        generator.copyCurrentStructure(parser);
+      }
+    } catch (LimitReachedException e) {
+      return out.toString() + TRUNCATED;
+    }
+    return out.toString();
+  }
+
+  /** Thrown from the writer to abandon rendering; never escapes {@link #render}. */
+  private static final class LimitReachedException extends IOException {
+    LimitReachedException() {
+      super(null, null);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+      return this;
+    }
+  }
+
+  private static final class LimitedWriter extends Writer {
+    private final StringBuilder buffer;
+    private final int limit;
+
+    LimitedWriter(int limit) {
+      this.limit = limit;
+      this.buffer = new StringBuilder(Math.min(limit, 1024));
+    }
+
+    @Override
+    public void write(char[] chars, int offset, int length) throws IOException {
+      int room = limit - buffer.length();
+      if (length > room) {
+        buffer.append(chars, offset, Math.max(room, 0));
+        throw new LimitReachedException();
+      }
+      buffer.append(chars, offset, length);
+    }
+
+    @Override
+    public void flush() {}
+
+    @Override
+    public void close() {}
+
+    @Override
+    public String toString() {
+      return buffer.toString();
+    }
+  }
+}
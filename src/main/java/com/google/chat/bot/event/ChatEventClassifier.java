@@ -0,0 +1,142 @@
+package com.google.chat.bot.event;
+
+import com.google.chat.bot.event.ChatEventView.Kind;
+import com.google.chat.bot.event.model.AddedToSpacePayload;
+import com.google.chat.bot.event.model.AppCommandPayload;
+import com.google.chat.bot.event.model.ButtonClickedPayload;
+import com.google.chat.bot.event.model.ChatEvent;
+import com.google.chat.bot.event.model.ChatEventObject;
+import com.google.chat.bot.event.model.ChatMessage;
+import com.google.chat.bot.event.model.CommonEventObject;
+import com.google.chat.bot.event.model.MessagePayload;
+import com.google.chat.bot.event.model.Space;
+import com.google.chat.bot.event.model.User;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Turns a decoded Chat add-on event into a {@link ChatEventView}. The precedence rules the
+ * handlers used to apply individually are resolved here, once per event.
+ */
+public final class ChatEventClassifier {
+
+  private ChatEventClassifier() {}
+
+  public static ChatEventView classify(ChatEvent event) {
+    ChatEventObject chat = event.chat();
+    CommonEventObject common = event.commonEventObject();
+
+    MessagePayload messagePayload = chat != null ? chat.messagePayload() : null;
+    AppCommandPayload appCommandPayload = chat != null ? chat.appCommandPayload() : null;
+    AddedToSpacePayload addedToSpacePayload = chat != null ? chat.addedToSpacePayload() : null;
+    ButtonClickedPayload buttonClickedPayload = chat != null ? chat.buttonClickedPayload() : null;
+    String invokedFunction = common != null ? common.invokedFunction() : null;
+
+    Kind kind;
+    if (invokedFunction != null || buttonClickedPayload != null) {
+      kind = Kind.CARD_CLICKED;
+    } else if (appCommandPayload != null) {
+      kind = Kind.APP_COMMAND;
+    } else if (messagePayload != null) {
+      kind = Kind.MESSAGE;
+    } else if (addedToSpacePayload != null) {
+      kind = Kind.ADDED_TO_SPACE;
+    } else {
+      kind = Kind.UNKNOWN;
+    }
+
+    // The message the event refers to: the posted message, the slash command message or the card
+    // message that was clicked.
+    ChatMessage message = null;
+    if (messagePayload != null) {
+      message = messagePayload.message();
+    } else if (appCommandPayload != null) {
+      message = appCommandPayload.message();
+    } else if (buttonClickedPayload != null) {
+      message = buttonClickedPayload.message();
+    }
+
+    String chatSpace = chat != null ? nameOf(chat.space()) : null;
+    String hostSpace = hostSpace(common);
+    String spaceName;
+    if (kind == Kind.CARD_CLICKED) {
+      spaceName =
+          firstNonNull(
+              chatSpace,
+              buttonClickedPayload != null ? nameOf(buttonClickedPayload.space()) : null,
+              hostSpace);
+    } else if (messagePayload != null) {
+      spaceName = nameOf(messagePayload.space());
+    } else if (appCommandPayload != null) {
+      spaceName = nameOf(appCommandPayload.space());
+    } else if (addedToSpacePayload != null) {
+      spaceName = nameOf(addedToSpacePayload.space());
+    } else {
+      spaceName = firstNonNull(chatSpace, hostSpace);
+    }
+
+    // Only posted messages carry a meaningful sender; a clicked card was sent by the bot itself.
+    User sender =
+        messagePayload != null && messagePayload.message() != null
+            ? messagePayload.message().sender()
+            : null;
+
+    long commandId = 0;
+    if (appCommandPayload != null && appCommandPayload.appCommandMetadata() != null) {
+      commandId = appCommandPayload.appCommandMetadata().appCommandId();
+    }
+
+    String actionMethodName = invokedFunction;
+    if (actionMethodName == null && buttonClickedPayload != null) {
+      actionMethodName = nonEmpty(buttonClickedPayload.actionMethodName());
+    }
+
+    Map<String, String> parameters = common != null ? common.parameters() : null;
+    if (parameters == null && buttonClickedPayload != null) {
+      parameters = buttonClickedPayload.parameters();
+    }
+
+    return new ChatEventView(
+        kind,
+        spaceName,
+        message != null && message.thread() != null ? nonEmpty(message.thread().name()) : null,
+        message != null ? nonEmpty(message.name()) : null,
+        sender != null ? orEmpty(sender.type()) : "",
+        sender != null ? orEmpty(sender.displayName()) : "",
+        message != null ? orEmpty(message.text()) : "",
+        commandId,
+        actionMethodName,
+        parameters != null ? Collections.unmodifiableMap(parameters) : Map.of(),
+        common != null ? FormValues.decode(common.formInputs()) : FormValues.empty());
+  }
+
+  private static String hostSpace(CommonEventObject common) {
+    if (common == null
+        || common.hostAppMetadata() == null
+        || common.hostAppMetadata().chat() == null) {
+      return null;
+    }
+    return nameOf(common.hostAppMetadata().chat().space());
+  }
+
+  private static String nameOf(Space space) {
+    return space != null ? nonEmpty(space.name()) : null;
+  }
+
+  private static String nonEmpty(String value) {
+    return value == null || value.isEmpty() ? null : value;
+  }
+
+  private static String orEmpty(String value) {
+    return value != null ? value : "";
+  }
+
+  private static String firstNonNull(String... values) {
+    for (String value : values) {
+      if (value != null) {
+        return value;
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,38 @@
+package com.google.chat.bot.event;
+
+import java.util.Map;
+
+/**
+ * Everything the handlers need from a Chat add-on event, extracted once by {@link
+ * ChatEventClassifier}. Optional names are {@code null} when absent; display text defaults to the
+ * empty string.
+ */
+public record ChatEventView(
+    Kind kind,
+    String spaceName,
+    String threadName,
+    String messageName,
+    String senderType,
+    String senderDisplayName,
+    String text,
+    long commandId,
+    String actionMethodName,
+    Map<String, String> parameters,
+    FormValues formValues) {
+
+  public enum Kind {
+    CARD_CLICKED,
+    APP_COMMAND,
+    MESSAGE,
+    ADDED_TO_SPACE,
+    UNKNOWN
+  }
+
+  public boolean isFromBot() {
+    return "BOT".equals(senderType);
+  }
+
+  public String parameter(String key) {
+    return parameters.get(key);
+  }
+}
@@ -0,0 +1,123 @@
+package com.google.chat.bot.event;
+
+import com.google.chat.bot.event.model.FormInput;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code formInputs} of a card submission, decoded once into typed values keyed by widget
+ * name. Lookups of a name the form did not send, or sent with a different type, return an empty
+ * list or {@code null}.
+ */
+public final class FormValues {
+
+  private static final FormValues EMPTY = new FormValues(Map.of());
+
+  /** One decoded widget value. */
+  public sealed interface Value {}
+
+  /** Text input, selection or multi-select; may be empty. */
+  public record Strings(List<String> values) implements Value {}
+
+  public record Date(LocalDate date) implements Value {}
+
+  public record Time(LocalTime time) implements Value {}
+
+  /** A date-time picker; {@code hasDate} and {@code hasTime} tell which parts were picked. */
+  public record DateTime(Instant instant, boolean hasDate, boolean hasTime) implements Value {}
+
+  private final Map<String, Value> values;
+
+  private FormValues(Map<String, Value> values) {
+    this.values = values;
+  }
+
+  public static FormValues empty() {
+    return EMPTY;
+  }
+
+  public static FormValues decode(Map<String, FormInput> formInputs) {
+    if (formInputs == null || formInputs.isEmpty()) {
+      return EMPTY;
+    }
+    Map<String, Value> values = new HashMap<>(formInputs.size() * 2);
+    formInputs.forEach(
+        (name, input) -> {
+          Value value = decode(input);
+          if (value != null) {
+            values.put(name, value);
+          }
+        });
+    return new FormValues(Collections.unmodifiableMap(values));
+  }
+
+  private static Value decode(FormInput input) {
+    if (input == null) {
+      return null;
+    }
+    if (input.dateTimeInput() != null) {
+      FormInput.DateTimeInput dateTime = input.dateTimeInput();
+      return new DateTime(
+          Instant.ofEpochMilli(dateTime.msSinceEpoch()), dateTime.hasDate(), dateTime.hasTime());
+    }
+    if (input.dateInput() != null) {
+      return new Date(
+          Instant.ofEpochMilli(input.dateInput().msSinceEpoch())
+              .atOffset(ZoneOffset.UTC)
+              .toLocalDate());
+    }
+    if (input.timeInput() != null) {
+      return new Time(LocalTime.of(input.timeInput().hours(), input.timeInput().minutes()));
+    }
+    return new Strings(List.copyOf(input.stringValues()));
+  }
+
+  public Map<String, Value> asMap() {
+    return values;
+  }
+
+  public boolean contains(String name) {
+    return values.containsKey(name);
+  }
+
+  /** The string values of a text or selection widget. */
+  public List<String> strings(String name) {
+    return values.get(name) instanceof Strings strings ? strings.values() : List.of();
+  }
+
+  /** The first string value of a text or selection widget. */
+  public String string(String name) {
+    List<String> strings = strings(name);
+    return strings.isEmpty() ? null : strings.get(0);
+  }
+
+  public LocalDate date(String name) {
+    Value value = values.get(name);
+    if (value instanceof Date date) {
+      return date.date();
+    }
+    if (value instanceof DateTime dateTime && dateTime.hasDate()) {
+      return dateTime.instant().atOffset(ZoneOffset.UTC).toLocalDate();
+    }
+    return null;
+  }
+
+  public LocalTime time(String name) {
+    return values.get(name) instanceof Time time ? time.time() : null;
+  }
+
+  public Instant dateTime(String name) {
+    return values.get(name) instanceof DateTime dateTime ? dateTime.instant() : null;
+  }
+
+  @Override
+  public String toString() {
+    return values.toString();
+  }
+}
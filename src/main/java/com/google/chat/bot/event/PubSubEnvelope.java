@@ -0,0 +1,14 @@
+package com.google.chat.bot.event;
+
+import java.util.Map;
+
+/**
+ * The parts of a Pub/Sub push request the bot uses. {@code data} is the already base64-decoded
+ * payload, or {@code null} if the message had none.
+ */
+public record PubSubEnvelope(String messageId, Map<String, String> attributes, byte[] data) {
+
+  public boolean hasData() {
+    return data != null && data.length > 0;
+  }
+}
@@ -0,0 +1,93 @@
+package com.google.chat.bot.event;
+
+import com.fasterxml.jackson.core.Base64Variant;
+import com.fasterxml.jackson.core.Base64Variants;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Streams a Pub/Sub push body and pulls out {@code message.data}, {@code message.messageId} and
+ * {@code message.attributes} without building a tree. The base64 data is decoded by the parser
+ * straight into a {@code byte[]}, so neither the envelope nor the payload is copied into a {@link
+ * String}.
+ */
+public final class PubSubEnvelopeParser {
+
+  // Standard alphabet; like java.util.Base64's decoder, trailing '=' padding is optional.
+  private static final Base64Variant PUBSUB_BASE64 =
+      Base64Variants.MIME_NO_LINEFEEDS.withReadPadding(
+          Base64Variant.PaddingReadBehaviour.PADDING_ALLOWED);
+
+  private final JsonFactory jsonFactory;
+
+  public PubSubEnvelopeParser(JsonFactory jsonFactory) {
+    this.jsonFactory = jsonFactory;
+  }
+
+  /** Returns {@code null} if the body has no {@code message} object. */
+  public PubSubEnvelope parse(byte[] body) throws IOException {
+    try (JsonParser parser = jsonFactory.createParser(body)) {
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        return null;
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        String field = parser.currentName();
+        JsonToken value = parser.nextToken();
+        if ("message".equals(field) && value == JsonToken.START_OBJECT) {
+          return parseMessage(parser);
+        }
+        parser.skipChildren();
+      }
+      return null;
+    }
+  }
+
+  private static PubSubEnvelope parseMessage(JsonParser parser) throws IOException {
+    String messageId = null;
+    Map<String, String> attributes = Map.of();
+    byte[] data = null;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String field = parser.currentName();
+      JsonToken value = parser.nextToken();
+      switch (field) {
+        case "data" -> {
+          if (value == JsonToken.VALUE_STRING) {
+            data = parser.getBinaryValue(PUBSUB_BASE64);
+          }
+        }
+        // Pub/Sub sends both spellings.
+        case "messageId", "message_id" -> {
+          if (messageId == null && value == JsonToken.VALUE_STRING) {
+            messageId = parser.getText();
+          }
+        }
+        case "attributes" -> {
+          if (value == JsonToken.START_OBJECT) {
+            attributes = parseAttributes(parser);
+          } else {
+            parser.skipChildren();
+          }
+        }
+        default -> parser.skipChildren();
+      }
+    }
+    return new PubSubEnvelope(messageId, attributes, data);
+  }
+
+  private static Map<String, String> parseAttributes(JsonParser parser) throws IOException {
+    Map<String, String> attributes = new HashMap<>();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      String key = parser.currentName();
+      if (parser.nextToken() == JsonToken.VALUE_STRING) {
+        attributes.put(key, parser.getText());
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return Map.copyOf(attributes);
+  }
+}
@@ -0,0 +1,6 @@
+package com.google.chat.bot.event.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record AddedToSpacePayload(Space space) {}
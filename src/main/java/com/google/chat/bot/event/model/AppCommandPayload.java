@@ -0,0 +1,11 @@
+package com.google.chat.bot.event.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record AppCommandPayload(
+    AppCommandMetadata appCommandMetadata, Space space, ChatMessage message) {
+
+  @JsonIgnoreProperties(ignoreUnknown = true)
+  public record AppCommandMetadata(long appCommandId, String appCommandType) {}
+}
@@ -0,0 +1,8 @@
+package com.google.chat.bot.event.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import java.util.Map;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ButtonClickedPayload(
+    Space space, ChatMessage message, String actionMethodName, Map<String, String> parameters) {}
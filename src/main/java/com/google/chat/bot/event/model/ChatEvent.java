@@ -0,0 +1,10 @@
+package com.google.chat.bot.event.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * A Google Workspace add-on event delivered to a Chat app. Only the fields the bot reads are
+ * mapped; everything else, including most of {@code hostAppMetadata}, is skipped while parsing.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ChatEvent(CommonEventObject commonEventObject, ChatEventObject chat) {}
@@ -0,0 +1,13 @@
+package com.google.chat.bot.event.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/** The {@code chat} object of an add-on event; exactly one payload is normally set. */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ChatEventObject(
+    Space space,
+    User user,
+    MessagePayload messagePayload,
+    AppCommandPayload appCommandPayload,
+    ButtonClickedPayload buttonClickedPayload,
+    AddedToSpacePayload addedToSpacePayload) {}
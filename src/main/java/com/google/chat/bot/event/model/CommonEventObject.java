@@ -0,0 +1,11 @@
+package com.google.chat.bot.event.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import java.util.Map;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record CommonEventObject(
+    String invokedFunction,
+    Map<String, String> parameters,
+    Map<String, FormInput> formInputs,
+    HostAppMetadata hostAppMetadata) {}
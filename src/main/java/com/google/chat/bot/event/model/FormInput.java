@@ -0,0 +1,39 @@
+package com.google.chat.bot.event.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import java.util.List;
+
+/**
+ * The value submitted by one card widget. Exactly one of the inputs is set, depending on the
+ * widget: text inputs and selections send {@code stringInputs}, date and time pickers the input of
+ * their type.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record FormInput(
+    StringInputs stringInputs,
+    DateInput dateInput,
+    TimeInput timeInput,
+    DateTimeInput dateTimeInput) {
+
+  @JsonIgnoreProperties(ignoreUnknown = true)
+  public record StringInputs(List<String> value) {}
+
+  /** Midnight UTC of the picked day. */
+  @JsonIgnoreProperties(ignoreUnknown = true)
+  public record DateInput(long msSinceEpoch) {}
+
+  @JsonIgnoreProperties(ignoreUnknown = true)
+  public record TimeInput(int hours, int minutes) {}
+
+  @JsonIgnoreProperties(ignoreUnknown = true)
+  public record DateTimeInput(long msSinceEpoch, boolean hasDate, boolean hasTime) {}
+
+  /** The submitted string values, empty if the widget sent none; JSON nulls become "". */
+  public List<String> stringValues() {
+    if (stringInputs == null || stringInputs.value() == null) {
+      return List.of();
+    }
+    List<String> values = stringInputs.value();
+    return values.contains(null) ? values.stream().map(v -> v != null ? v : "").toList() : values;
+  }
+}
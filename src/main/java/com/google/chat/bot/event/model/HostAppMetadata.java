@@ -0,0 +1,10 @@
+package com.google.chat.bot.event.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record HostAppMetadata(ChatMetadata chat) {
+
+  @JsonIgnoreProperties(ignoreUnknown = true)
+  public record ChatMetadata(Space space) {}
+}
@@ -0,0 +1,241 @@
+package com.google.chat.bot.outbound;
+
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.StatusCode;
+import com.google.chat.bot.BotProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stops calling the Chat API while it is failing or slow, so workers fail fast instead of each
+ * waiting out the RPC deadline.
+ *
+ * <p>Outcomes of the last {@code windowSize} calls are kept. Once at least {@code minimumCalls}
+ * were seen and the share of failed or slow calls reaches its threshold, the breaker opens and
+ * rejects calls for {@code openDuration}. It then half-opens and lets {@code halfOpenCalls} probes
+ * through: if all succeed it closes, otherwise it opens again. The state is published as {@code
+ * bot.chat.circuit.state} (0 closed, 1 half-open, 2 open) and rejections as {@code
+ * bot.chat.circuit.rejected}.
+ *
+ * <p>Only calls admitted while closed count towards the window, and only calls admitted as probes
+ * decide a half-open round. {@code RESOURCE_EXHAUSTED} is not a failure here: it is mostly the
+ * per-space quota, and one busy space must not cut off the others.
+ */
+class ChatCircuitBreaker {
+
+  private static final Logger logger = LoggerFactory.getLogger(ChatCircuitBreaker.class);
+
+  // Failures that say something about the service rather than about the request.
+  private static final Set<StatusCode.Code> SERVICE_FAILURES =
+      EnumSet.of(
+          StatusCode.Code.UNAVAILABLE,
+          StatusCode.Code.DEADLINE_EXCEEDED,
+          StatusCode.Code.INTERNAL,
+          StatusCode.Code.UNKNOWN);
+
+  private static final byte SUCCESS = 0;
+  private static final byte FAILED = 1;
+  private static final byte SLOW = 2;
+
+  enum State {
+    CLOSED,
+    HALF_OPEN,
+    OPEN
+  }
+
+  /** A call let through by {@link #tryAcquire}; probes belong to one half-open round. */
+  record Permit(boolean probe, long round) {}
+
+  private static final Permit CLOSED_PERMIT = new Permit(false, 0);
+
+  private final int minimumCalls;
+  private final int failureRateThreshold;
+  private final int slowCallRateThreshold;
+  private final long slowCallNanos;
+  private final long openNanos;
+  private final int halfOpenCalls;
+  private final ScheduledExecutorService scheduler;
+  private final Runnable onRecovering;
+  private final Counter rejected;
+
+  // Guarded by this.
+  private final byte[] window;
+  private int windowNext;
+  private int windowCount;
+  private int windowFailures;
+  private int windowSlow;
+  private State state = State.CLOSED;
+  private long openUntil;
+  private int probesStarted;
+  private int probesSucceeded;
+  private long round;
+
+  /** {@code onRecovering} runs on the scheduler whenever the breaker half-opens or closes. */
+  ChatCircuitBreaker(
+      BotProperties.CircuitBreaker settings,
+      ScheduledExecutorService scheduler,
+      Runnable onRecovering,
+      MeterRegistry meterRegistry) {
+    this.window = new byte[Math.max(1, settings.getWindowSize())];
+    this.minimumCalls = Math.max(1, Math.min(settings.getMinimumCalls(), window.length));
+    this.failureRateThreshold = settings.getFailureRateThreshold();
+    this.slowCallRateThreshold = settings.getSlowCallRateThreshold();
+    this.slowCallNanos = settings.getSlowCallDuration().toNanos();
+    this.openNanos = settings.getOpenDuration().toNanos();
+    this.halfOpenCalls = Math.max(1, settings.getHalfOpenCalls());
+    this.scheduler = scheduler;
+    this.onRecovering = onRecovering;
+    this.rejected =
+        Counter.builder("bot.chat.circuit.rejected")
+            .description("Chat API calls refused while the circuit breaker was open")
+            .register(meterRegistry);
+    Gauge.builder("bot.chat.circuit.state", this, breaker -> breaker.state().ordinal())
+        .description("Chat API circuit breaker state: 0 closed, 1 half-open, 2 open")
+        .register(meterRegistry);
+  }
+
+  synchronized State state() {
+    return state;
+  }
+
+  synchronized boolean isOpen() {
+    return state == State.OPEN;
+  }
+
+  /** How many more calls {@link #tryAcquire} would currently let through. */
+  synchronized int permittedCalls() {
+    return switch (state) {
+      case CLOSED -> Integer.MAX_VALUE;
+      case HALF_OPEN -> halfOpenCalls - probesStarted;
+      case OPEN -> 0;
+    };
+  }
+
+  /**
+   * Lets a call go ahead, or returns {@code null} if it must not. The permit must then be passed
+   * to {@link #record} with the outcome of the call, or to {@link #release} if it was not made.
+   */
+  Permit tryAcquire() {
+    synchronized (this) {
+      switch (state) {
+        case CLOSED:
+          return CLOSED_PERMIT;
+        case HALF_OPEN:
+          if (probesStarted < halfOpenCalls) {
+            probesStarted++;
+            return new Permit(true, round);
+          }
+          break;
+        case OPEN:
+          break;
+      }
+    }
+    rejected.increment();
+    return null;
+  }
+
+  /** Gives back a permit whose call was never made, so a probe slot is not lost. */
+  synchronized void release(Permit permit) {
+    if (isCurrentProbe(permit)) {
+      probesStarted--;
+    }
+  }
+
+  /** Records the outcome of a call made with {@code permit}; {@code failure} is null on success. */
+  void record(Permit permit, long durationNanos, Throwable failure) {
+    byte outcome;
+    if (failure != null && isServiceFailure(failure)) {
+      outcome = FAILED;
+    } else if (durationNanos >= slowCallNanos) {
+      outcome = SLOW;
+    } else {
+      outcome = SUCCESS;
+    }
+    boolean recovered = false;
+    synchronized (this) {
+      // A probe of an earlier round, or a call admitted while closed that completes after the
+      // breaker opened, no longer says anything about the current state.
+      if (isCurrentProbe(permit)) {
+        if (outcome != SUCCESS) {
+          open("probe " + (outcome == FAILED ? "failed" : "was slow"));
+        } else if (++probesSucceeded >= halfOpenCalls) {
+          state = State.CLOSED;
+          resetWindow();
+          logger.info("Chat API circuit breaker closed");
+          recovered = true;
+        }
+      } else if (!permit.probe() && state == State.CLOSED) {
+        add(outcome);
+        if (windowCount >= minimumCalls) {
+          if (windowFailures * 100 >= failureRateThreshold * windowCount) {
+            open(windowFailures + " of the last " + windowCount + " calls failed");
+          } else if (windowSlow * 100 >= slowCallRateThreshold * windowCount) {
+            open(windowSlow + " of the last " + windowCount + " calls were slow");
+          }
+        }
+      }
+    }
+    if (recovered) {
+      scheduler.execute(onRecovering);
+    }
+  }
+
+  private void add(byte outcome) {
+    if (windowCount == window.length) {
+      byte evicted = window[windowNext];
+      windowFailures -= evicted == FAILED ? 1 : 0;
+      windowSlow -= evicted == SLOW ? 1 : 0;
+    } else {
+      windowCount++;
+    }
+    window[windowNext] = outcome;
+    windowNext = (windowNext + 1) % window.length;
+    windowFailures += outcome == FAILED ? 1 : 0;
+    windowSlow += outcome == SLOW ? 1 : 0;
+  }
+
+  private void resetWindow() {
+    windowNext = 0;
+    windowCount = 0;
+    windowFailures = 0;
+    windowSlow = 0;
+  }
+
+  private void open(String reason) {
+    state = State.OPEN;
+    openUntil = System.nanoTime() + openNanos;
+    logger.warn("Chat API circuit breaker opened for {} ms: {}", openNanos / 1_000_000, reason);
+    scheduler.schedule(this::halfOpen, openNanos, TimeUnit.NANOSECONDS);
+  }
+
+  private void halfOpen() {
+    synchronized (this) {
+      // A newer open() scheduled its own transition.
+      if (state != State.OPEN || System.nanoTime() - openUntil < 0) {
+        return;
+      }
+      state = State.HALF_OPEN;
+      round++;
+      probesStarted = 0;
+      probesSucceeded = 0;
+      logger.info("Chat API circuit breaker half-open, allowing {} probe calls", halfOpenCalls);
+    }
+    onRecovering.run();
+  }
+
+  private boolean isCurrentProbe(Permit permit) {
+    return permit.probe() && state == State.HALF_OPEN && permit.round() == round;
+  }
+
+  private static boolean isServiceFailure(Throwable failure) {
+    return failure instanceof ApiException apiException
+        && SERVICE_FAILURES.contains(apiException.getStatusCode().getCode());
+  }
+}
@@ -0,0 +1,356 @@
+package com.google.chat.bot.outbound;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.api.gax.core.FixedCredentialsProvider;
+import com.google.api.gax.core.NoCredentialsProvider;
+import com.google.api.gax.grpc.InstantiatingGrpcChannelProvider;
+import com.google.api.gax.rpc.ApiException;
+import com.google.auth.oauth2.GoogleCredentials;
+import com.google.chat.bot.BotProperties;
+import com.google.chat.bot.card.CardIdGenerator;
+import com.google.chat.bot.card.CardIdGenerators;
+import com.google.chat.bot.telemetry.BotTracing;
+import com.google.chat.v1.ChatServiceClient;
+import com.google.chat.v1.ChatServiceSettings;
+import com.google.chat.v1.CreateMessageRequest;
+import com.google.chat.v1.Message;
+import com.google.chat.v1.UpdateMessageRequest;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.grpc.ManagedChannelBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.threeten.bp.Duration;
+
+/**
+ * Owns the {@link ChatServiceClient} and is the single path for outbound Chat API calls, so
+ * per-instance limits apply to every handler. Calls return as soon as the RPC is started; the
+ * semaphore keeps the number of in-flight RPCs bounded and only blocks the caller when the cap is
+ * reached. With rate limiting enabled the caller also waits for a write token of the target space
+ * before taking a slot.
+ *
+ * <p>Failed calls are retried by {@link ChatRetrier} rather than by GAX, which is only left to
+ * enforce the per-attempt deadline. Every attempt goes through the limits above again, and through
+ * the {@link ChatCircuitBreaker} when enabled. While the breaker is open calls fail with {@link
+ * CircuitOpenException}; with a spool configured they are kept and replayed once the breaker lets
+ * calls through again. The scheduler only times backoffs and breaker transitions; retries and
+ * replays run on separate worker threads, since an attempt can block on the limits.
+ *
+ * <p>Each attempt is timed as {@code bot.chat.rpc}, tagged with the RPC and its gRPC status, and
+ * the wait for a token and a slot before it as {@code bot.chat.acquire}. Attempts are also traced
+ * as gRPC client spans under the span of the caller, including retries.
+ */
+@Component
+public class ChatGateway {
+
+  private static final Logger logger = LoggerFactory.getLogger(ChatGateway.class);
+
+  private static final String CHAT_SCOPE = "https://www.googleapis.com/auth/chat.bot";
+
+  private final Semaphore inFlight;
+  // Null when rate limiting is disabled.
+  private final ChatRateLimiter rateLimiter;
+  private final ScheduledExecutorService retryScheduler;
+  // Runs retries and spool replays, which may block on the limits; the scheduler must not.
+  private final ExecutorService retryWorkers;
+  private final ChatRetrier retrier;
+  // Null when the circuit breaker is disabled; the spool also when it has no capacity.
+  private final ChatCircuitBreaker circuitBreaker;
+  private final BlockingQueue<SpooledCall> spool;
+  private final Counter spooled;
+  private final long attemptTimeoutMillis;
+  private final String endpoint;
+  private final MeterRegistry meterRegistry;
+  private final Map<String, Timer> rpcTimers = new ConcurrentHashMap<>();
+  private final Timer acquireWait;
+  private final boolean plaintext;
+  private final BotTracing tracing;
+  // Instance ID plus counter: unique across instances without a SecureRandom draw per call.
+  private final CardIdGenerator requestIds = CardIdGenerators.counter();
+  private ChatServiceClient chatServiceClient;
+
+  public ChatGateway(BotProperties properties, MeterRegistry meterRegistry, BotTracing tracing) {
+    BotProperties.Chat settings = properties.getChat();
+    this.inFlight = new Semaphore(settings.getMaxConcurrentCalls());
+    this.rateLimiter =
+        settings.getRateLimit().isEnabled()
+            ? new ChatRateLimiter(settings.getRateLimit(), meterRegistry)
+            : null;
+    this.retryScheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "chat-retry");
+              thread.setDaemon(true);
+              return thread;
+            });
+    AtomicInteger workerCount = new AtomicInteger();
+    this.retryWorkers =
+        Executors.newCachedThreadPool(
+            runnable -> {
+              Thread thread =
+                  new Thread(runnable, "chat-retry-worker-" + workerCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.retrier =
+        new ChatRetrier(settings.getRetry(), retryScheduler, retryWorkers, meterRegistry);
+    this.attemptTimeoutMillis = settings.getRetry().getAttemptTimeout().toMillis();
+    this.endpoint = settings.getEndpoint();
+    this.plaintext = settings.isPlaintext();
+    this.meterRegistry = meterRegistry;
+    this.tracing = tracing;
+    this.acquireWait =
+        Timer.builder("bot.chat.acquire")
+            .description("Wait for a rate limit token and an in-flight slot before a Chat API call")
+            .register(meterRegistry);
+
+    BotProperties.CircuitBreaker breakerSettings = settings.getCircuitBreaker();
+    this.circuitBreaker =
+        breakerSettings.isEnabled()
+            ? new ChatCircuitBreaker(
+                breakerSettings, retryScheduler, this::scheduleReplay, meterRegistry)
+            : null;
+    this.spool =
+        circuitBreaker != null && breakerSettings.getSpoolCapacity() > 0
+            ? new ArrayBlockingQueue<>(breakerSettings.getSpoolCapacity())
+            : null;
+    this.spooled =
+        Counter.builder("bot.chat.circuit.spooled")
+            .description("Chat API calls kept for replay while the circuit breaker was open")
+            .register(meterRegistry);
+    if (spool != null) {
+      Gauge.builder("bot.chat.circuit.spool.size", spool, BlockingQueue::size)
+          .register(meterRegistry);
+    }
+  }
+
+  @PostConstruct
+  public void init() {
+    try {
+      logger.info(
+          "Initializing ChatServiceClient with endpoint: {} and scope: {}", endpoint, CHAT_SCOPE);
+      ChatServiceSettings.Builder chatServiceSettings =
+          ChatServiceSettings.newBuilder().setEndpoint(endpoint);
+      InstantiatingGrpcChannelProvider.Builder transport =
+          ChatServiceSettings.defaultGrpcTransportProviderBuilder()
+              .setInterceptorProvider(() -> ImmutableList.of(tracing.grpcInterceptor()));
+      if (plaintext) {
+        logger.warn("Chat API calls to {} are sent in plaintext without credentials", endpoint);
+        chatServiceSettings.setCredentialsProvider(NoCredentialsProvider.create());
+        transport.setChannelConfigurator(ManagedChannelBuilder::usePlaintext);
+      } else {
+        GoogleCredentials credentials =
+            GoogleCredentials.getApplicationDefault().createScoped(ImmutableList.of(CHAT_SCOPE));
+        chatServiceSettings.setCredentialsProvider(FixedCredentialsProvider.create(credentials));
+      }
+      chatServiceSettings.setTransportChannelProvider(transport.build());
+      Duration timeout = Duration.ofMillis(attemptTimeoutMillis);
+      chatServiceSettings.createMessageSettings().setSimpleTimeoutNoRetries(timeout);
+      chatServiceSettings.updateMessageSettings().setSimpleTimeoutNoRetries(timeout);
+      chatServiceClient = ChatServiceClient.create(chatServiceSettings.build());
+      logger.info("ChatServiceClient initialized successfully.");
+    } catch (Exception e) {
+      logger.error("Failed to initialize ChatServiceClient", e);
+    }
+  }
+
+  @PreDestroy
+  public void close() {
+    retryScheduler.shutdownNow();
+    retryWorkers.shutdownNow();
+    if (chatServiceClient != null) {
+      chatServiceClient.close();
+    }
+  }
+
+  public boolean isReady() {
+    return chatServiceClient != null;
+  }
+
+  /**
+   * Issues {@code CreateMessage} through the GAX callable so the caller is not blocked for the
+   * RPC; several calls for one event can be in flight at once. Requests without a request ID get
+   * one, so that a retry after a lost response does not post the message twice.
+   */
+  public ApiFuture<Message> createMessageAsync(CreateMessageRequest request) {
+    CreateMessageRequest idempotent =
+        request.getRequestId().isEmpty()
+            ? request.toBuilder().setRequestId(requestIds.next("req-")).build()
+            : request;
+    return call(
+        "CreateMessage",
+        idempotent.getParent(),
+        () -> chatServiceClient.createMessageCallable().futureCall(idempotent));
+  }
+
+  public ApiFuture<Message> updateMessageAsync(UpdateMessageRequest request) {
+    return call(
+        "UpdateMessage",
+        request.getMessage().getName(),
+        () -> chatServiceClient.updateMessageCallable().futureCall(request));
+  }
+
+  private ApiFuture<Message> call(
+      String method, String resourceName, Supplier<ApiFuture<Message>> rpc) {
+    Supplier<ApiFuture<Message>> traced = tracing.inCurrentSpan(rpc);
+    Supplier<ApiFuture<Message>> retried =
+        () -> retrier.call(() -> attempt(method, resourceName, traced));
+    if (circuitBreaker != null && circuitBreaker.isOpen()) {
+      return ApiFutures.immediateFailedFuture(spoolOrReject(resourceName, retried));
+    }
+    return retried.get();
+  }
+
+  private <T> ApiFuture<T> attempt(
+      String method, String resourceName, Supplier<ApiFuture<T>> rpc) {
+    ChatCircuitBreaker.Permit permit =
+        circuitBreaker != null ? circuitBreaker.tryAcquire() : null;
+    if (circuitBreaker != null && permit == null) {
+      return ApiFutures.immediateFailedFuture(
+          new CircuitOpenException("Chat API circuit breaker is open", false));
+    }
+    long acquireStart = System.nanoTime();
+    boolean acquired = false;
+    try {
+      acquire(resourceName);
+      acquired = true;
+    } finally {
+      if (!acquired && permit != null) {
+        circuitBreaker.release(permit);
+      }
+    }
+    long start = System.nanoTime();
+    acquireWait.record(start - acquireStart, TimeUnit.NANOSECONDS);
+    ApiFuture<T> future;
+    try {
+      future = rpc.get();
+    } catch (RuntimeException e) {
+      inFlight.release();
+      completed(method, start, permit, e);
+      throw e;
+    }
+    ApiFutures.addCallback(
+        future,
+        new ApiFutureCallback<T>() {
+          @Override
+          public void onSuccess(T result) {
+            completed(method, start, permit, null);
+          }
+
+          @Override
+          public void onFailure(Throwable t) {
+            completed(method, start, permit, t);
+          }
+        },
+        MoreExecutors.directExecutor());
+    return releaseOnCompletion(future);
+  }
+
+  private void completed(
+      String method, long startNanos, ChatCircuitBreaker.Permit permit, Throwable failure) {
+    long durationNanos = System.nanoTime() - startNanos;
+    if (circuitBreaker != null) {
+      circuitBreaker.record(permit, durationNanos, failure);
+    }
+    String status =
+        failure == null
+            ? "OK"
+            : failure instanceof ApiException apiException
+                ? apiException.getStatusCode().getCode().name()
+                : failure.getClass().getSimpleName();
+    rpcTimers
+        .computeIfAbsent(
+            method + " " + status,
+            key ->
+                Timer.builder("bot.chat.rpc")
+                    .description("Chat API call attempts, by method and status")
+                    .tags("method", method, "status", status)
+                    .register(meterRegistry))
+        .record(durationNanos, TimeUnit.NANOSECONDS);
+  }
+
+  private CircuitOpenException spoolOrReject(
+      String resourceName, Supplier<ApiFuture<Message>> retried) {
+    if (spool != null && spool.offer(new SpooledCall(resourceName, retried))) {
+      spooled.increment();
+      return new CircuitOpenException(
+          "Chat API circuit breaker is open, call for " + resourceName + " spooled for replay",
+          true);
+    }
+    return new CircuitOpenException(
+        "Chat API circuit breaker is open, call for " + resourceName + " dropped", false);
+  }
+
+  private void scheduleReplay() {
+    try {
+      retryWorkers.execute(this::replaySpool);
+    } catch (RejectedExecutionException e) {
+      // Shutting down; the spooled calls are dropped.
+    }
+  }
+
+  /** Replays spooled calls while the breaker lets them through, oldest first. */
+  private void replaySpool() {
+    if (spool == null) {
+      return;
+    }
+    SpooledCall call;
+    while (circuitBreaker.permittedCalls() > 0 && (call = spool.poll()) != null) {
+      String resourceName = call.resourceName();
+      ApiFutures.addCallback(
+          call.retried().get(),
+          new ApiFutureCallback<Message>() {
+            @Override
+            public void onSuccess(Message response) {
+              logger.info("Replayed spooled call for {}", resourceName);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+              logger.error("Replay of spooled call for {} failed", resourceName, t);
+            }
+          },
+          MoreExecutors.directExecutor());
+    }
+  }
+
+  private record SpooledCall(String resourceName, Supplier<ApiFuture<Message>> retried) {}
+
+  private <T> ApiFuture<T> releaseOnCompletion(ApiFuture<T> future) {
+    future.addListener(inFlight::release, MoreExecutors.directExecutor());
+    return future;
+  }
+
+  private void acquire(String resourceName) {
+    try {
+      if (rateLimiter != null) {
+        rateLimiter.acquire(ChatRateLimiter.spaceOf(resourceName));
+      }
+      inFlight.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted waiting to call the Chat API", e);
+    }
+  }
+}
@@ -0,0 +1,167 @@
+package com.google.chat.bot.outbound;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.chat.bot.BotProperties;
+import com.google.chat.bot.card.CardIdGenerator;
+import com.google.chat.bot.card.CardTemplate;
+import com.google.chat.v1.CreateMessageRequest;
+import com.google.chat.v1.Message;
+import com.google.chat.v1.Thread;
+import com.google.chat.v1.UpdateMessageRequest;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.protobuf.FieldMask;
+import com.google.protobuf.util.JsonFormat;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * The messages the bot posts: text replies, cards and message updates. Every method returns as
+ * soon as the call is started and logs its outcome; a failure is also reported through the
+ * returned future, which completes with {@code null} when nothing was sent.
+ */
+@Component
+public class ChatMessenger {
+
+  private static final Logger logger = LoggerFactory.getLogger(ChatMessenger.class);
+
+  /** Completed future for handlers that do not post anything. */
+  public static final ApiFuture<Message> NO_REPLY = ApiFutures.immediateFuture(null);
+
+  private final ChatGateway chatGateway;
+  private final CardIdGenerator cardIdGenerator;
+  // Null unless bot.chat.coalesce.enabled is set.
+  private final ReplyCoalescer replyCoalescer;
+
+  public ChatMessenger(
+      BotProperties properties,
+      ChatGateway chatGateway,
+      CardIdGenerator cardIdGenerator,
+      MeterRegistry meterRegistry) {
+    this.chatGateway = chatGateway;
+    this.cardIdGenerator = cardIdGenerator;
+    BotProperties.Coalesce coalesce = properties.getChat().getCoalesce();
+    this.replyCoalescer =
+        coalesce.isEnabled()
+            ? new ReplyCoalescer(
+                this::sendReply, coalesce.getWindow(), coalesce.getMaxChars(), meterRegistry)
+            : null;
+  }
+
+  @PreDestroy
+  public void close() {
+    if (replyCoalescer != null) {
+      replyCoalescer.close();
+    }
+  }
+
+  /** Whether text replies are held back by {@code bot.chat.coalesce.window} before sending. */
+  public boolean isCoalescing() {
+    return replyCoalescer != null;
+  }
+
+  /** Posts {@code text} to the space, in {@code threadName} if set. */
+  public ApiFuture<Message> reply(String spaceName, String threadName, String text) {
+    if (replyCoalescer != null) {
+      return replyCoalescer.reply(spaceName, threadName, text);
+    }
+    return sendReply(spaceName, threadName, text);
+  }
+
+  private ApiFuture<Message> sendReply(String spaceName, String threadName, String text) {
+    if (!chatGateway.isReady()) {
+      logger.error("ChatServiceClient not initialized.");
+      return NO_REPLY;
+    }
+    try {
+      Message.Builder messageBuilder = Message.newBuilder().setText(text);
+      if (threadName != null && !threadName.isEmpty()) {
+        messageBuilder.setThread(Thread.newBuilder().setName(threadName));
+      }
+      CreateMessageRequest request =
+          CreateMessageRequest.newBuilder()
+              .setParent(spaceName)
+              .setMessage(messageBuilder.build())
+              .build();
+      logger.debug("Attempting to send reply to {} (thread: {}): {}", spaceName, threadName, text);
+      return logOutcome(chatGateway.createMessageAsync(request), "reply", spaceName);
+    } catch (Exception e) {
+      logger.error("Failed to send reply to {}", spaceName, e);
+      return ApiFutures.immediateFailedFuture(e);
+    }
+  }
+
+  /** Posts the card of {@code template} under a new card ID; {@code description} is for logs. */
+  public ApiFuture<Message> sendCard(
+      CardTemplate template, String description, String spaceName, String threadName) {
+    if (!chatGateway.isReady()) {
+      logger.error("ChatServiceClient not initialized.");
+      return NO_REPLY;
+    }
+    try {
+      Message messageToSend =
+          template.toMessage(cardIdGenerator.next(template.cardIdPrefix()), threadName);
+      if (logger.isDebugEnabled()) {
+        logger.debug(
+            "Outgoing Message with Card JSON: {}", JsonFormat.printer().print(messageToSend));
+      }
+
+      CreateMessageRequest request =
+          CreateMessageRequest.newBuilder().setParent(spaceName).setMessage(messageToSend).build();
+      logger.debug("Attempting to send {} to {} (thread: {})", description, spaceName, threadName);
+      return logOutcome(chatGateway.createMessageAsync(request), description, spaceName);
+    } catch (Exception e) {
+      logger.error("Failed to send {} to {}", description, spaceName, e);
+      return ApiFutures.immediateFailedFuture(e);
+    }
+  }
+
+  /** Replaces the text of an existing message and removes its cards. */
+  public ApiFuture<Message> updateMessage(String messageName, String text) {
+    if (!chatGateway.isReady()) {
+      logger.error("ChatServiceClient not initialized.");
+      return NO_REPLY;
+    }
+    try {
+      Message message = Message.newBuilder().setName(messageName).setText(text).build();
+      UpdateMessageRequest request =
+          UpdateMessageRequest.newBuilder()
+              .setMessage(message)
+              .setUpdateMask(FieldMask.newBuilder().addPaths("text").addPaths("cards_v2").build())
+              .build();
+      logger.debug("Attempting to update message: {}", messageName);
+      return logOutcome(chatGateway.updateMessageAsync(request), "update", messageName);
+    } catch (Exception e) {
+      logger.error("Failed to update message {}", messageName, e);
+      return ApiFutures.immediateFailedFuture(e);
+    }
+  }
+
+  /** Logs how the call ended; the messages are only formatted when they are logged. */
+  private ApiFuture<Message> logOutcome(ApiFuture<Message> future, String what, String target) {
+    ApiFutures.addCallback(
+        future,
+        new ApiFutureCallback<Message>() {
+          @Override
+          public void onSuccess(Message response) {
+            logger.debug("Sent {} to {}, response ID: {}", what, target, response.getName());
+          }
+
+          @Override
+          public void onFailure(Throwable t) {
+            if (t instanceof CircuitOpenException || t instanceof RateLimitExceededException) {
+              // Expected while the Chat API is down or a space is over its rate; no stack trace.
+              logger.warn("Failed to send {} to {}: {}", what, target, t.getMessage());
+            } else {
+              logger.error("Failed to send {} to {}", what, target, t);
+            }
+          }
+        },
+        MoreExecutors.directExecutor());
+    return future;
+  }
+}
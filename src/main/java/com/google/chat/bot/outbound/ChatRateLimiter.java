@@ -0,0 +1,86 @@
+package com.google.chat.bot.outbound;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.google.chat.bot.BotProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Smooths outbound Chat API writes to stay within the per-space and per-project quotas. Every
+ * call takes a token from its space's bucket and from the global bucket and waits until both are
+ * available, so a short burst in one space is spread out instead of failing with
+ * RESOURCE_EXHAUSTED. Time spent waiting is recorded as {@code bot.chat.ratelimit.wait}.
+ *
+ * <p>A call that would wait longer than {@code maxWait} fails instead, without taking tokens, and
+ * is counted as {@code bot.chat.ratelimit.refused}: a long sleep on a request or worker thread
+ * would only hold the push past its acknowledgement deadline and cause a redelivery.
+ */
+class ChatRateLimiter {
+
+  private final TokenBucket global;
+  private final LoadingCache<String, TokenBucket> perSpace;
+  private final long maxWaitNanos;
+  private final Timer waitTimer;
+  private final Counter refused;
+
+  ChatRateLimiter(BotProperties.RateLimit settings, MeterRegistry meterRegistry) {
+    this.global = new TokenBucket(settings.getGlobalRate(), settings.getGlobalBurst());
+    // Idle spaces are evicted; a returning space starts with a full bucket again.
+    this.perSpace =
+        Caffeine.newBuilder()
+            .maximumSize(settings.getMaxSpaces())
+            .expireAfterAccess(Duration.ofMinutes(10))
+            .build(space -> new TokenBucket(settings.getSpaceRate(), settings.getSpaceBurst()));
+    this.maxWaitNanos = settings.getMaxWait().toNanos();
+    this.waitTimer =
+        Timer.builder("bot.chat.ratelimit.wait")
+            .description("Time outbound Chat API calls waited for a rate limit token")
+            .register(meterRegistry);
+    this.refused =
+        Counter.builder("bot.chat.ratelimit.refused")
+            .description("Chat API calls failed because they would wait too long for a token")
+            .register(meterRegistry);
+  }
+
+  /**
+   * Blocks until a write to {@code spaceName} is allowed; a {@code null} space is only global.
+   *
+   * @throws RateLimitExceededException if that would take longer than the maximum wait
+   */
+  void acquire(String spaceName) throws InterruptedException {
+    long now = System.nanoTime();
+    // The space bucket is the one more likely to refuse, so it goes first.
+    TokenBucket space = spaceName != null ? perSpace.get(spaceName) : null;
+    long wait = space != null ? space.tryReserve(now, maxWaitNanos) : 0;
+    if (wait < 0) {
+      refused.increment();
+      throw new RateLimitExceededException("Rate limit of " + spaceName + " exceeded");
+    }
+    long globalWait = global.tryReserve(now, maxWaitNanos);
+    if (globalWait < 0) {
+      if (space != null) {
+        space.cancel();
+      }
+      refused.increment();
+      throw new RateLimitExceededException("Instance-wide Chat API rate limit exceeded");
+    }
+    wait = Math.max(wait, globalWait);
+    if (wait > 0) {
+      TimeUnit.NANOSECONDS.sleep(wait);
+    }
+    waitTimer.record(wait, TimeUnit.NANOSECONDS);
+  }
+
+  /** The {@code spaces/*} prefix of a space, message or thread resource name. */
+  static String spaceOf(String resourceName) {
+    if (resourceName == null || !resourceName.startsWith("spaces/")) {
+      return null;
+    }
+    int end = resourceName.indexOf('/', "spaces/".length());
+    return end < 0 ? resourceName : resourceName.substring(0, end);
+  }
+}
@@ -0,0 +1,198 @@
+package com.google.chat.bot.outbound;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.api.core.SettableApiFuture;
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.StatusCode;
+import com.google.chat.bot.BotProperties;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Retries failed Chat API calls whose status code is configured as retryable. The delay before
+ * retry {@code n} is drawn uniformly from zero to {@code initialBackoff * multiplier^(n-1)}, capped
+ * at {@code maxBackoff} (full jitter), and no retry is started past the total timeout.
+ *
+ * <p>Retries also draw from a budget that only refills as a fraction of first attempts, so during
+ * an outage the retry traffic stays a bounded share of the normal traffic instead of multiplying
+ * it. Attempts, calls that succeeded after a retry and give-ups are counted as {@code
+ * bot.chat.retry.attempts}, {@code bot.chat.retry.recovered} and {@code bot.chat.retry.giveups}.
+ *
+ * <p>The scheduler only times the backoff; retries are started on the worker executor, since an
+ * attempt may block waiting for a rate limit token or an in-flight slot.
+ */
+class ChatRetrier {
+
+  private static final long MILLI_TOKENS = 1000;
+
+  private final int maxAttempts;
+  private final long initialBackoffNanos;
+  private final long maxBackoffNanos;
+  private final double multiplier;
+  private final long totalTimeoutNanos;
+  private final Set<StatusCode.Code> retryableCodes;
+  private final long budgetDeposit;
+  private final long budgetCap;
+  // Retry tokens in thousandths, so fractional deposits per call add up exactly.
+  private final AtomicLong budget;
+  private final ScheduledExecutorService scheduler;
+  private final Executor workers;
+
+  private final Counter attempts;
+  private final Counter recovered;
+  private final Counter gaveUpOnStatus;
+  private final Counter gaveUpOnAttempts;
+  private final Counter gaveUpOnDeadline;
+  private final Counter gaveUpOnBudget;
+
+  ChatRetrier(
+      BotProperties.Retry settings,
+      ScheduledExecutorService scheduler,
+      Executor workers,
+      MeterRegistry meterRegistry) {
+    this.maxAttempts = Math.max(1, settings.getMaxAttempts());
+    this.initialBackoffNanos = settings.getInitialBackoff().toNanos();
+    this.maxBackoffNanos = settings.getMaxBackoff().toNanos();
+    this.multiplier = settings.getBackoffMultiplier();
+    this.totalTimeoutNanos = settings.getTotalTimeout().toNanos();
+    this.retryableCodes =
+        settings.getRetryableCodes().isEmpty()
+            ? EnumSet.noneOf(StatusCode.Code.class)
+            : EnumSet.copyOf(settings.getRetryableCodes());
+    this.budgetDeposit = (long) (settings.getBudgetRatio() * MILLI_TOKENS);
+    this.budgetCap = settings.getBudgetBurst() * MILLI_TOKENS;
+    this.budget = new AtomicLong(budgetCap);
+    this.scheduler = scheduler;
+    this.workers = workers;
+
+    this.attempts = counter(meterRegistry, "bot.chat.retry.attempts", "Chat API call attempts");
+    this.recovered =
+        counter(
+            meterRegistry, "bot.chat.retry.recovered", "Chat API calls that succeeded on retry");
+    this.gaveUpOnStatus = giveUps(meterRegistry, "status");
+    this.gaveUpOnAttempts = giveUps(meterRegistry, "attempts");
+    this.gaveUpOnDeadline = giveUps(meterRegistry, "deadline");
+    this.gaveUpOnBudget = giveUps(meterRegistry, "budget");
+  }
+
+  /**
+   * Runs {@code call} and retries it as configured. A retried call must be idempotent; the first
+   * attempt runs on the calling thread and retries on the worker executor.
+   */
+  <T> ApiFuture<T> call(Supplier<ApiFuture<T>> call) {
+    deposit();
+    SettableApiFuture<T> result = SettableApiFuture.create();
+    attempt(call, result, 1, System.nanoTime() + totalTimeoutNanos);
+    return result;
+  }
+
+  private <T> void attempt(
+      Supplier<ApiFuture<T>> call, SettableApiFuture<T> result, int attempt, long deadline) {
+    attempts.increment();
+    ApiFuture<T> future;
+    try {
+      future = call.get();
+    } catch (RuntimeException e) {
+      future = ApiFutures.immediateFailedFuture(e);
+    }
+    ApiFutures.addCallback(
+        future,
+        new ApiFutureCallback<T>() {
+          @Override
+          public void onSuccess(T value) {
+            if (attempt > 1) {
+              recovered.increment();
+            }
+            result.set(value);
+          }
+
+          @Override
+          public void onFailure(Throwable t) {
+            long delay = retryDelay(t, attempt, deadline);
+            if (delay < 0) {
+              result.setException(t);
+              return;
+            }
+            scheduler.schedule(
+                () -> retry(call, result, attempt + 1, deadline), delay, TimeUnit.NANOSECONDS);
+          }
+        },
+        MoreExecutors.directExecutor());
+  }
+
+  private <T> void retry(
+      Supplier<ApiFuture<T>> call, SettableApiFuture<T> result, int attempt, long deadline) {
+    try {
+      workers.execute(() -> attempt(call, result, attempt, deadline));
+    } catch (RejectedExecutionException e) {
+      // Shutting down.
+      result.setException(e);
+    }
+  }
+
+  /** The delay before the next attempt, or -1 to give up with {@code failure}. */
+  private long retryDelay(Throwable failure, int attempt, long deadline) {
+    if (!(failure instanceof ApiException apiException)
+        || !retryableCodes.contains(apiException.getStatusCode().getCode())) {
+      if (attempt > 1) {
+        gaveUpOnStatus.increment();
+      }
+      return -1;
+    }
+    if (attempt >= maxAttempts) {
+      gaveUpOnAttempts.increment();
+      return -1;
+    }
+    double backoff =
+        Math.min(initialBackoffNanos * Math.pow(multiplier, attempt - 1), maxBackoffNanos);
+    long delay = ThreadLocalRandom.current().nextLong((long) backoff + 1);
+    if (System.nanoTime() + delay - deadline >= 0) {
+      gaveUpOnDeadline.increment();
+      return -1;
+    }
+    if (!withdraw()) {
+      gaveUpOnBudget.increment();
+      return -1;
+    }
+    return delay;
+  }
+
+  private void deposit() {
+    budget.accumulateAndGet(budgetDeposit, (current, add) -> Math.min(budgetCap, current + add));
+  }
+
+  private boolean withdraw() {
+    while (true) {
+      long current = budget.get();
+      if (current < MILLI_TOKENS) {
+        return false;
+      }
+      if (budget.compareAndSet(current, current - MILLI_TOKENS)) {
+        return true;
+      }
+    }
+  }
+
+  private static Counter counter(MeterRegistry registry, String name, String description) {
+    return Counter.builder(name).description(description).register(registry);
+  }
+
+  private static Counter giveUps(MeterRegistry registry, String reason) {
+    return Counter.builder("bot.chat.retry.giveups")
+        .description("Failed Chat API calls that were not retried further")
+        .tag("reason", reason)
+        .register(registry);
+  }
+}
@@ -0,0 +1,20 @@
+package com.google.chat.bot.outbound;
+
+/**
+ * Returned instead of calling the Chat API while the circuit breaker is open. Not an {@code
+ * ApiException}, so it is never retried.
+ */
+public class CircuitOpenException extends RuntimeException {
+
+  private final boolean spooled;
+
+  CircuitOpenException(String message, boolean spooled) {
+    super(message, null, false, false);
+    this.spooled = spooled;
+  }
+
+  /** Whether the call was kept to be replayed once the Chat API recovers. */
+  public boolean isSpooled() {
+    return spooled;
+  }
+}
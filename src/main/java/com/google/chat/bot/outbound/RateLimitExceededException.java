@@ -0,0 +1,13 @@
+package com.google.chat.bot.outbound;
+
+/**
+ * Returned instead of calling the Chat API when a write would have to wait longer than {@code
+ * bot.chat.rate-limit.max-wait} for its rate limit tokens. Not an {@code ApiException}, so it is
+ * never retried.
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+  RateLimitExceededException(String message) {
+    super(message, null, false, false);
+  }
+}
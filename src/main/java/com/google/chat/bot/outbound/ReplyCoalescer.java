@@ -0,0 +1,148 @@
+package com.google.chat.bot.outbound;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.api.core.SettableApiFuture;
+import com.google.chat.v1.Message;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffers text replies per space and thread for a short window and posts them as one message,
+ * so a burst of user messages does not turn into a burst of Chat API calls. A batch is sent when
+ * its window ends, or earlier when the next text would take it past {@code maxChars}. Every
+ * caller's future completes with the merged message.
+ *
+ * <p>Texts merged into an already pending message are counted as {@code
+ * bot.chat.replies.coalesced}.
+ */
+public class ReplyCoalescer implements AutoCloseable {
+
+  /** Posts a text message, as the unbuffered reply path would. */
+  @FunctionalInterface
+  public interface Sender {
+    ApiFuture<Message> send(String spaceName, String threadName, String text);
+  }
+
+  private static final String SEPARATOR = "\n";
+
+  private final Sender sender;
+  private final long windowNanos;
+  private final int maxChars;
+  private final Counter coalesced;
+  private final Map<Key, Batch> batches = new ConcurrentHashMap<>();
+  private final ScheduledExecutorService scheduler =
+      Executors.newSingleThreadScheduledExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "reply-coalescer");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  public ReplyCoalescer(Sender sender, Duration window, int maxChars, MeterRegistry meterRegistry) {
+    this.sender = sender;
+    this.windowNanos = window.toNanos();
+    this.maxChars = maxChars;
+    this.coalesced =
+        Counter.builder("bot.chat.replies.coalesced")
+            .description("Text replies merged into another pending reply")
+            .register(meterRegistry);
+  }
+
+  public ApiFuture<Message> reply(String spaceName, String threadName, String text) {
+    SettableApiFuture<Message> result = SettableApiFuture.create();
+    Key key = new Key(spaceName, threadName);
+    Batch[] replaced = new Batch[1];
+    Batch[] started = new Batch[1];
+    batches.compute(
+        key,
+        (k, batch) -> {
+          if (batch != null && batch.tryAdd(text, result, maxChars)) {
+            return batch;
+          }
+          replaced[0] = batch;
+          started[0] = new Batch(text, result);
+          return started[0];
+        });
+
+    if (replaced[0] != null) {
+      // Full: it was swapped out of the map, so its scheduled flush will find nothing to do.
+      send(key, replaced[0]);
+    }
+    if (started[0] != null) {
+      Batch batch = started[0];
+      scheduler.schedule(() -> flush(key, batch), windowNanos, TimeUnit.NANOSECONDS);
+    } else {
+      coalesced.increment();
+    }
+    return result;
+  }
+
+  /** Sends whatever is still buffered. */
+  @Override
+  public void close() {
+    scheduler.shutdownNow();
+    batches.forEach(this::flush);
+  }
+
+  private void flush(Key key, Batch batch) {
+    if (batches.remove(key, batch)) {
+      send(key, batch);
+    }
+  }
+
+  private void send(Key key, Batch batch) {
+    ApiFuture<Message> sent;
+    try {
+      sent = sender.send(key.spaceName(), key.threadName(), batch.text.toString());
+    } catch (RuntimeException e) {
+      sent = ApiFutures.immediateFailedFuture(e);
+    }
+    ApiFutures.addCallback(
+        sent,
+        new ApiFutureCallback<Message>() {
+          @Override
+          public void onSuccess(Message message) {
+            batch.waiters.forEach(waiter -> waiter.set(message));
+          }
+
+          @Override
+          public void onFailure(Throwable t) {
+            batch.waiters.forEach(waiter -> waiter.setException(t));
+          }
+        },
+        MoreExecutors.directExecutor());
+  }
+
+  private record Key(String spaceName, String threadName) {}
+
+  /** Only touched inside {@code batches.compute} until it is removed from the map. */
+  private static final class Batch {
+    final StringBuilder text;
+    final List<SettableApiFuture<Message>> waiters = new ArrayList<>(2);
+
+    Batch(String first, SettableApiFuture<Message> waiter) {
+      this.text = new StringBuilder(first);
+      waiters.add(waiter);
+    }
+
+    boolean tryAdd(String next, SettableApiFuture<Message> waiter, int maxChars) {
+      if (text.length() + SEPARATOR.length() + next.length() > maxChars) {
+        return false;
+      }
+      text.append(SEPARATOR).append(next);
+      waiters.add(waiter);
+      return true;
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package com.google.chat.bot.outbound;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket in its GCRA form: the whole state is the theoretical arrival time of the
+ * next token, advanced with a CAS. A caller beyond the burst gets a token that only becomes
+ * available later and is told how long to wait for it; if that wait would be longer than the
+ * caller is willing to wait, the token is refused and the bucket is left unchanged.
+ */
+final class TokenBucket {
+
+  private final long intervalNanos;
+  private final long toleranceNanos;
+  private final AtomicLong theoreticalArrival;
+
+  /** {@code ratePerSecond} tokens are added per second, up to {@code burst} at a time. */
+  TokenBucket(double ratePerSecond, int burst) {
+    if (ratePerSecond <= 0 || burst <= 0) {
+      throw new IllegalArgumentException("rate and burst must be positive");
+    }
+    this.intervalNanos = Math.max(1, (long) (1_000_000_000L / ratePerSecond));
+    this.toleranceNanos = intervalNanos * burst;
+    // Starts full: the first burst tokens are available immediately.
+    this.theoreticalArrival = new AtomicLong(System.nanoTime());
+  }
+
+  /**
+   * Takes one token and returns how many nanoseconds after {@code now}, a {@link
+   * System#nanoTime()} reading, it becomes available. Returns -1 without taking it if that would be
+   * more than {@code maxWaitNanos}.
+   */
+  long tryReserve(long now, long maxWaitNanos) {
+    while (true) {
+      long current = theoreticalArrival.get();
+      // nanoTime values may only be compared by their difference.
+      long next = (current - now < 0 ? now : current) + intervalNanos;
+      long wait = Math.max(0, next - toleranceNanos - now);
+      if (wait > maxWaitNanos) {
+        return -1;
+      }
+      if (theoreticalArrival.compareAndSet(current, next)) {
+        return wait;
+      }
+    }
+  }
+
+  /** Puts back a token that was reserved but not used. */
+  void cancel() {
+    theoreticalArrival.addAndGet(-intervalNanos);
+  }
+}
@@ -0,0 +1,139 @@
+package com.google.chat.bot.telemetry;
+
+import com.google.chat.bot.card.CardActions;
+import com.google.chat.bot.event.ChatEventView;
+import com.google.chat.bot.event.PubSubEnvelope;
+import io.grpc.ClientInterceptor;
+import io.micrometer.core.instrument.binder.grpc.ObservationGrpcClientInterceptor;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import java.util.Locale;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Spans for the path from a push request to the Chat API calls it causes:
+ *
+ * <ul>
+ *   <li>the {@code http post /} server span of the push request, from Spring MVC;
+ *   <li>{@code bot.event} around the processing of one event, on whichever thread it runs;
+ *   <li>{@code bot.handler} around the event handler;
+ *   <li>one gRPC client span per Chat API attempt, from {@link #grpcInterceptor()}.
+ * </ul>
+ *
+ * The event and handler spans carry the Pub/Sub messageId, the space, the slash command ID and the
+ * card action as attributes. Spans started here become children of the span current on the calling
+ * thread; work handed to another thread takes its parent along through {@link #current()} or
+ * {@link #inCurrentSpan}.
+ */
+@Component
+public class BotTracing {
+
+  private final Tracer tracer;
+  private final ObservationRegistry observationRegistry;
+
+  public BotTracing(
+      ObjectProvider<Tracer> tracer, ObjectProvider<ObservationRegistry> observationRegistry) {
+    // Both are missing when tracing is turned off with management.tracing.enabled=false.
+    this.tracer = tracer.getIfAvailable(() -> Tracer.NOOP);
+    this.observationRegistry = observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP);
+  }
+
+  /** The span current on this thread, or {@code null}; the parent to pass to {@link #event}. */
+  public Span current() {
+    return tracer.currentSpan();
+  }
+
+  /**
+   * Runs {@code processing} in a {@code bot.event} span for {@code envelope}, a child of {@code
+   * parent} or, if that is {@code null}, of the current span.
+   */
+  public void event(PubSubEnvelope envelope, Span parent, Runnable processing) {
+    Span span = (parent != null ? tracer.nextSpan(parent) : tracer.nextSpan()).name("bot.event");
+    span.tag("messaging.system", "gcp_pubsub");
+    span.tag("messaging.message.id", envelope.messageId());
+    span.start();
+    try (Tracer.SpanInScope scope = tracer.withSpan(span)) {
+      processing.run();
+    } catch (RuntimeException e) {
+      span.error(e);
+      throw e;
+    } finally {
+      span.end();
+    }
+  }
+
+  /** Adds the attributes of the classified event to the current span. */
+  public void classified(ChatEventView view) {
+    Span span = tracer.currentSpan();
+    if (span != null) {
+      tag(span, view);
+    }
+  }
+
+  /** Runs {@code handler} in a {@code bot.handler} span for {@code view}. */
+  public <T> T handler(ChatEventView view, Supplier<T> handler) {
+    Span span = tag(tracer.nextSpan().name("bot.handler"), view).start();
+    try (Tracer.SpanInScope scope = tracer.withSpan(span)) {
+      return handler.get();
+    } catch (RuntimeException e) {
+      span.error(e);
+      throw e;
+    } finally {
+      span.end();
+    }
+  }
+
+  /** Marks the current span as failed by {@code error}. */
+  public void error(Throwable error) {
+    Span span = tracer.currentSpan();
+    if (span != null) {
+      span.error(error);
+    }
+  }
+
+  /**
+   * Wraps {@code task} so that it runs with the span that is current now as its parent, for tasks
+   * that run later on another thread, such as retries.
+   */
+  public <T> Supplier<T> inCurrentSpan(Supplier<T> task) {
+    Span parent = tracer.currentSpan();
+    if (parent == null) {
+      return task;
+    }
+    return () -> {
+      try (Tracer.SpanInScope scope = tracer.withSpan(parent)) {
+        return task.get();
+      }
+    };
+  }
+
+  /** Starts a client span for each gRPC call, a child of the span current when it is started. */
+  public ClientInterceptor grpcInterceptor() {
+    return new ObservationGrpcClientInterceptor(observationRegistry);
+  }
+
+  private static Span tag(Span span, ChatEventView view) {
+    span.tag("bot.event.kind", view.kind().name().toLowerCase(Locale.ROOT));
+    if (view.spaceName() != null) {
+      span.tag("chat.space", view.spaceName());
+    }
+    if (view.kind() == ChatEventView.Kind.APP_COMMAND) {
+      span.tag("chat.command.id", view.commandId());
+    }
+    if (view.actionMethodName() != null) {
+      span.tag("chat.action.function", view.actionMethodName());
+    }
+    String actionKey = view.parameters().get(CardActions.PARAM_ACTION_KEY);
+    if (actionKey != null) {
+      span.tag("chat.action.key", actionKey);
+    }
+    String actionType = view.parameters().get(CardActions.PARAM_ACTION_TYPE);
+    if (actionType != null) {
+      span.tag("chat.action.type", actionType);
+    }
+    return span;
+  }
+}
@@ -0,0 +1,115 @@
+package com.google.chat.bot.telemetry;
+
+import com.google.chat.bot.BotProperties;
+import com.google.chat.bot.event.ChatEventView;
+import com.google.chat.bot.event.PubSubEnvelope;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.stereotype.Component;
+
+/**
+ * What the bot logs per event. At INFO every event gets one line when its processing ends, and
+ * the messageId, event type and space are kept in the MDC while it is processed, so that they
+ * become fields of every line with the JSON log format. The event JSON is only turned into a
+ * string when it is logged: at DEBUG, or at INFO for one in {@code bot.logging.payload-sample-rate}
+ * events of its type.
+ */
+@Component
+public class EventLogPolicy {
+
+  public static final String MESSAGE_ID = "messageId";
+  public static final String EVENT_TYPE = "eventType";
+  public static final String SPACE = "space";
+  public static final String LATENCY_MS = "latencyMs";
+
+  private static final Logger logger = LoggerFactory.getLogger(EventLogPolicy.class);
+
+  // Only holds the event types that are sampled.
+  private final Map<ChatEventView.Kind, Integer> sampleRates =
+      new EnumMap<>(ChatEventView.Kind.class);
+  private final Map<ChatEventView.Kind, AtomicLong> seen = new EnumMap<>(ChatEventView.Kind.class);
+
+  public EventLogPolicy(BotProperties properties) {
+    properties
+        .getLogging()
+        .getPayloadSampleRate()
+        .forEach(
+            (kind, rate) -> {
+              if (rate > 0) {
+                sampleRates.put(kind, rate);
+                seen.put(kind, new AtomicLong());
+              }
+            });
+  }
+
+  /**
+   * Puts the messageId of {@code envelope} into the MDC of the calling thread, until the returned
+   * scope is closed.
+   */
+  public Scope open(PubSubEnvelope envelope) {
+    MDC.put(MESSAGE_ID, envelope.messageId());
+    return new Scope();
+  }
+
+  /** Adds the event type and space to the MDC of the open scope. */
+  public void classified(ChatEventView view) {
+    MDC.put(EVENT_TYPE, kindName(view.kind()));
+    if (view.spaceName() != null) {
+      MDC.put(SPACE, view.spaceName());
+    }
+  }
+
+  /** Logs the event JSON if DEBUG is enabled or the event is sampled. */
+  public void payload(ChatEventView view, byte[] eventJson) {
+    if (isSampled(view.kind())) {
+      logger.info("Event payload: {}", new String(eventJson, StandardCharsets.UTF_8));
+    } else if (logger.isDebugEnabled()) {
+      logger.debug("Event payload: {}", new String(eventJson, StandardCharsets.UTF_8));
+    }
+  }
+
+  /** The INFO line of an event, with the time since {@code receivedNanos}. */
+  public void processed(long receivedNanos) {
+    if (!logger.isInfoEnabled()) {
+      return;
+    }
+    long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - receivedNanos);
+    MDC.put(LATENCY_MS, Long.toString(latencyMs));
+    logger.info(
+        "Processed {} event {} for {} in {} ms",
+        MDC.get(EVENT_TYPE) != null ? MDC.get(EVENT_TYPE) : "unreadable",
+        MDC.get(MESSAGE_ID),
+        MDC.get(SPACE) != null ? MDC.get(SPACE) : "no space",
+        latencyMs);
+    MDC.remove(LATENCY_MS);
+  }
+
+  private boolean isSampled(ChatEventView.Kind kind) {
+    AtomicLong counter = seen.get(kind);
+    return counter != null && counter.getAndIncrement() % sampleRates.get(kind) == 0;
+  }
+
+  private static String kindName(ChatEventView.Kind kind) {
+    return kind.name().toLowerCase(Locale.ROOT);
+  }
+
+  /** Removes the fields of one event from the MDC when closed. */
+  public static final class Scope implements AutoCloseable {
+
+    private Scope() {}
+
+    @Override
+    public void close() {
+      MDC.remove(MESSAGE_ID);
+      MDC.remove(EVENT_TYPE);
+      MDC.remove(SPACE);
+    }
+  }
+}
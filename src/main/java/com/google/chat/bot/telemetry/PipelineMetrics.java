@@ -0,0 +1,102 @@
+package com.google.chat.bot.telemetry;
+
+import com.google.chat.bot.event.ChatEventView;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Component;
+
+/**
+ * Meters for the stages an event passes through between the push request and the replies:
+ *
+ * <ul>
+ *   <li>{@code bot.pipeline.stage}, tagged {@code stage}: time spent in each {@link Stage}.
+ *   <li>{@code bot.handler}, tagged {@code kind} and {@code outcome}: the event handlers, up to the
+ *       point where their Chat API calls have been started.
+ *   <li>{@code bot.events}, tagged {@code kind}: classified events.
+ *   <li>{@code bot.pipeline.errors}, tagged {@code stage} and {@code exception}: events dropped or
+ *       failed because of an exception.
+ * </ul>
+ *
+ * All timers are registered up front; timings are passed in as {@link System#nanoTime} starts.
+ */
+@Component
+public class PipelineMetrics {
+
+  public enum Stage {
+    /** Parsing the push request, including the base64 decode of the event. */
+    ENVELOPE,
+    /** Reading the event JSON into the typed model. */
+    EVENT,
+    CLASSIFY,
+    /** Waiting in the dispatch queue ({@code ASYNC} and {@code ORDERED} modes). */
+    QUEUE,
+    /** Waiting for the Chat API calls of an event to complete. */
+    REPLIES;
+
+    final String tag = name().toLowerCase(Locale.ROOT);
+  }
+
+  private final MeterRegistry meterRegistry;
+  private final Map<Stage, Timer> stages = new EnumMap<>(Stage.class);
+  private final Map<ChatEventView.Kind, Timer> handled = new EnumMap<>(ChatEventView.Kind.class);
+  private final Map<ChatEventView.Kind, Timer> failed = new EnumMap<>(ChatEventView.Kind.class);
+  private final Map<ChatEventView.Kind, Counter> events = new EnumMap<>(ChatEventView.Kind.class);
+
+  public PipelineMetrics(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+    for (Stage stage : Stage.values()) {
+      stages.put(
+          stage,
+          Timer.builder("bot.pipeline.stage")
+              .description("Time spent in each stage of event processing")
+              .tag("stage", stage.tag)
+              .register(meterRegistry));
+    }
+    for (ChatEventView.Kind kind : ChatEventView.Kind.values()) {
+      String kindTag = kind.name().toLowerCase(Locale.ROOT);
+      handled.put(kind, handlerTimer(kindTag, "ok"));
+      failed.put(kind, handlerTimer(kindTag, "error"));
+      events.put(
+          kind,
+          Counter.builder("bot.events")
+              .description("Chat events received, by kind")
+              .tag("kind", kindTag)
+              .register(meterRegistry));
+    }
+  }
+
+  private Timer handlerTimer(String kind, String outcome) {
+    return Timer.builder("bot.handler")
+        .description("Event handler time until its Chat API calls are started")
+        .tags("kind", kind, "outcome", outcome)
+        .register(meterRegistry);
+  }
+
+  public void stage(Stage stage, long startNanos) {
+    stages.get(stage).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+  }
+
+  public void event(ChatEventView.Kind kind) {
+    events.get(kind).increment();
+  }
+
+  public void handled(ChatEventView.Kind kind, long startNanos, boolean error) {
+    (error ? failed : handled)
+        .get(kind)
+        .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /** Counts an exception that ended the processing of an event in {@code stage}. */
+  public void error(String stage, Throwable error) {
+    Counter.builder("bot.pipeline.errors")
+        .description("Events whose processing ended with an exception")
+        .tags("stage", stage, "exception", error.getClass().getSimpleName())
+        .register(meterRegistry)
+        .increment();
+  }
+}
@@ -0,0 +1,22 @@
+package com.google.chat.bot.telemetry;
+
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Span exporters besides OTLP, which Spring Boot sets up on its own once {@code
+ * management.otlp.tracing.endpoint} is set. Every exporter bean receives all sampled spans.
+ */
+@Configuration(proxyBeanMethods = false)
+public class TracingConfiguration {
+
+  /** Logs each finished span on one line through {@code java.util.logging}, bridged to SLF4J. */
+  @Bean
+  @ConditionalOnProperty(name = "bot.tracing.log-spans", havingValue = "true")
+  public SpanExporter loggingSpanExporter() {
+    return LoggingSpanExporter.create();
+  }
+}